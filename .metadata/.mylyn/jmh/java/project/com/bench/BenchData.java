@@ -0,0 +1,23 @@
+package project.com.bench;
+
+import project.com.model.Song;
+
+/** Deterministic fixtures, so runs on different versions see identical data. */
+final class BenchData {
+
+    private static final String[] GENRES = {"Melody", "Folk", "Classical", "Dance", "Devotional"};
+
+    private BenchData() {
+    }
+
+    static Song song(int i) {
+        Song song = new Song();
+        song.setTitle("Bench Song " + i);
+        song.setArtist("Artist " + (i % 50));
+        song.setMovieName("Movie " + (i % 200));
+        song.setGenre(GENRES[i % GENRES.length]);
+        song.setAudioSrc("/songs/bench-" + i + ".mp3");
+        song.setImage("/images/bench-" + (i % 200) + ".jpg");
+        return song;
+    }
+}
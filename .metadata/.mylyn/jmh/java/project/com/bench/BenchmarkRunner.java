@@ -0,0 +1,37 @@
+package project.com.bench;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+
+/**
+ * Runs every benchmark in this package with the settings pinned on the
+ * classes and writes JMH JSON to jmh-results/&lt;label&gt;.json, e.g.
+ * {@code BenchmarkRunner before} then {@code BenchmarkRunner after}, and
+ * diff the two files. An optional second argument narrows the run with a
+ * JMH include regex. The pom.xml beside this tree builds it with the
+ * application sources and runs it through exec:exec.
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException {
+        String label = args.length > 0 ? args[0] : "results";
+        String include = args.length > 1 ? args[1] : "project\\.com\\.bench\\..*";
+
+        File output = new File("jmh-results", label + ".json");
+        output.getParentFile().mkdirs();
+
+        new Runner(new OptionsBuilder()
+                .include(include)
+                .forks(1)
+                .jvmArgsAppend("-Xms1g", "-Xmx1g", "-XX:+UseG1GC")
+                .resultFormat(ResultFormatType.JSON)
+                .result(output.getPath())
+                .shouldFailOnError(true)
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,148 @@
+package project.com.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import project.com.MusicAppApplication;
+import project.com.model.PlaylistSong;
+import project.com.model.Song;
+import project.com.service.PlaylistSongService;
+import project.com.service.SongService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rows per second for catalog and playlist ingest: one service call per row
+ * (the path before bulk ingest) against one batched call for all of them.
+ * Scores are rows/s because each invocation writes ROWS rows.
+ *
+ * H2 has no network round trip and ignores rewriteBatchedStatements, so the
+ * gap against MySQL is larger than measured here.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BulkInsertBenchmark {
+
+    private static final int ROWS = 500;
+    private static final int CATALOG_SIZE = 2000;
+
+    private ConfigurableApplicationContext context;
+    private SongService songService;
+    private PlaylistSongService playlistSongService;
+
+    private List<Long> songIds;
+    // Each playlist invocation writes for a new user, so every row is an insert
+    private int userSeq;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(MusicAppApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:bulk;MODE=MySQL;DB_CLOSE_DELAY=-1",
+                        "spring.datasource.driver-class-name=org.h2.Driver",
+                        "spring.datasource.username=sa",
+                        "spring.datasource.password=",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "musicapp.password.iterations=1000",
+                        "musicapp.suggest.refresh-ms=3600000",
+                        "logging.level.root=WARN")
+                .run();
+        songService = context.getBean(SongService.class);
+        playlistSongService = context.getBean(PlaylistSongService.class);
+
+        List<Song> catalog = songs();
+        while (catalog.size() < CATALOG_SIZE) {
+            catalog.addAll(songs());
+        }
+        songService.saveSongs(catalog);
+        songIds = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            songIds.add(catalog.get(i).getId());
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void songsOneByOne() {
+        for (Song song : songs()) {
+            songService.saveSong(song);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public List<Song> songsBatched() {
+        return songService.saveSongs(songs());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public int playlistOneByOne() {
+        String user = nextUser();
+        int added = 0;
+        for (PlaylistSong entry : playlistEntries()) {
+            if (playlistSongService.addToPlaylist(user, entry)) {
+                added++;
+            }
+        }
+        return added;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public int playlistBatched() {
+        return playlistSongService.addAllToPlaylist(nextUser(), playlistEntries());
+    }
+
+    private String nextUser() {
+        return "bulk-" + (userSeq++) + "@example.com";
+    }
+
+    private static List<Song> songs() {
+        List<Song> songs = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            songs.add(BenchData.song(i));
+        }
+        return songs;
+    }
+
+    private List<PlaylistSong> playlistEntries() {
+        List<PlaylistSong> entries = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            Song song = BenchData.song(i);
+            PlaylistSong entry = new PlaylistSong();
+            entry.setSongId(songIds.get(i));
+            entry.setSongTitle(song.getTitle());
+            entry.setArtist(song.getArtist());
+            entry.setMovieName(song.getMovieName());
+            entry.setImageUrl(song.getImage());
+            entry.setAudioSrc(song.getAudioSrc());
+            entries.add(entry);
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,57 @@
+package project.com.bench;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import project.com.model.JWTManager;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token issue and validation. The cached case hits the verified-token cache;
+ * the uncached case runs with a zero-size cache so every call parses and
+ * checks the signature.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+
+    private JWTManager cached;
+    private JWTManager uncached;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        cached = new JWTManager(10000, new SimpleMeterRegistry());
+        uncached = new JWTManager(0, new SimpleMeterRegistry());
+        token = cached.generateToken("bench@example.com");
+        cached.validateToken(token);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return cached.generateToken("bench@example.com");
+    }
+
+    @Benchmark
+    public String validateTokenCached() {
+        return cached.validateToken(token);
+    }
+
+    @Benchmark
+    public String validateTokenUncached() {
+        return uncached.validateToken(token);
+    }
+}
@@ -0,0 +1,171 @@
+package project.com.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import project.com.MusicAppApplication;
+import project.com.model.LikedSong;
+import project.com.model.PlaylistSong;
+import project.com.model.Song;
+import project.com.service.LikedSongService;
+import project.com.service.PlaylistSongService;
+import project.com.service.SongService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LikedSongService and PlaylistSongService against an in-memory H2 database
+ * in MySQL mode, through the real Spring context (JPA, caches, metrics
+ * aspect) with the web layer off.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LibraryServiceBenchmark {
+
+    private static final String USER = "bench@example.com";
+    private static final int CATALOG_SIZE = 2000;
+
+    // Songs already in the user's library before measuring
+    @Param({"100", "1000"})
+    public int librarySize;
+
+    private ConfigurableApplicationContext context;
+    private LikedSongService likedSongService;
+    private PlaylistSongService playlistSongService;
+
+    private List<Long> songIds;
+    private List<Long> checkIds;
+    private long toggledSongId;
+    private long playlistSongId;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(MusicAppApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:bench-" + librarySize + ";MODE=MySQL;DB_CLOSE_DELAY=-1",
+                        "spring.datasource.driver-class-name=org.h2.Driver",
+                        "spring.datasource.username=sa",
+                        "spring.datasource.password=",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "musicapp.password.iterations=1000",
+                        "musicapp.suggest.refresh-ms=3600000",
+                        "logging.level.root=WARN")
+                .run();
+        likedSongService = context.getBean(LikedSongService.class);
+        playlistSongService = context.getBean(PlaylistSongService.class);
+
+        List<Song> catalog = new ArrayList<>(CATALOG_SIZE);
+        for (int i = 0; i < CATALOG_SIZE; i++) {
+            catalog.add(BenchData.song(i));
+        }
+        context.getBean(SongService.class).saveSongs(catalog);
+        songIds = new ArrayList<>(CATALOG_SIZE);
+        for (Song song : catalog) {
+            songIds.add(song.getId());
+        }
+
+        List<PlaylistSong> playlist = new ArrayList<>(librarySize);
+        for (int i = 0; i < librarySize; i++) {
+            likedSongService.toggleLikeSong(USER, likedSong(i));
+            playlist.add(playlistSong(i));
+        }
+        playlistSongService.addAllToPlaylist(USER, playlist);
+
+        // Half of the checked ids are in the library, as on a typical catalog page
+        checkIds = new ArrayList<>(100);
+        for (int i = 0; i < 100; i++) {
+            checkIds.add(songIds.get(i % 2 == 0 ? i : CATALOG_SIZE - 1 - i));
+        }
+        toggledSongId = songIds.get(CATALOG_SIZE - 1);
+        playlistSongId = songIds.get(CATALOG_SIZE - 2);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public boolean toggleLike() {
+        LikedSong song = new LikedSong();
+        song.setSongId(toggledSongId);
+        return likedSongService.toggleLikeSong(USER, song);
+    }
+
+    @Benchmark
+    public boolean isSongLiked() {
+        return likedSongService.isSongLiked(USER, songIds.get(0));
+    }
+
+    @Benchmark
+    public Set<Long> checkLikedBatch() {
+        return likedSongService.getLikedSongIds(USER, checkIds);
+    }
+
+    @Benchmark
+    public List<LikedSong> getLikedSongs() {
+        return likedSongService.getLikedSongs(USER);
+    }
+
+    @Benchmark
+    public boolean addAndRemoveFromPlaylist() {
+        PlaylistSong song = new PlaylistSong();
+        song.setSongId(playlistSongId);
+        playlistSongService.addToPlaylist(USER, song);
+        return playlistSongService.removeFromPlaylist(USER, playlistSongId);
+    }
+
+    @Benchmark
+    public Set<Long> checkPlaylistBatch() {
+        return playlistSongService.getPlaylistSongIds(USER, checkIds);
+    }
+
+    @Benchmark
+    public List<PlaylistSong> getPlaylistSongs() {
+        return playlistSongService.getPlaylistSongs(USER);
+    }
+
+    private LikedSong likedSong(int i) {
+        Song song = BenchData.song(i);
+        LikedSong liked = new LikedSong();
+        liked.setSongId(songIds.get(i));
+        liked.setSongTitle(song.getTitle());
+        liked.setArtist(song.getArtist());
+        liked.setMovieName(song.getMovieName());
+        liked.setImageUrl(song.getImage());
+        liked.setAudioSrc(song.getAudioSrc());
+        return liked;
+    }
+
+    private PlaylistSong playlistSong(int i) {
+        Song song = BenchData.song(i);
+        PlaylistSong entry = new PlaylistSong();
+        entry.setSongId(songIds.get(i));
+        entry.setSongTitle(song.getTitle());
+        entry.setArtist(song.getArtist());
+        entry.setMovieName(song.getMovieName());
+        entry.setImageUrl(song.getImage());
+        entry.setAudioSrc(song.getAudioSrc());
+        return entry;
+    }
+}
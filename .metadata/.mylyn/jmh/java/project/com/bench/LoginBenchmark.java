@@ -0,0 +1,103 @@
+package project.com.bench;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import project.com.MusicAppApplication;
+import project.com.model.Users;
+import project.com.model.UsersManager;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Concurrent logins at the configured musicapp.password.iterations (not
+ * lowered as in the other benchmarks), so the sampled p99 is the one to hold
+ * against musicapp.password.target-ms and timeout-ms. More callers than
+ * verifier threads, so queueing and up-front rejection are part of the result;
+ * the accepted/rejected counters say how many logins got a 503 instead.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Threads(16)
+@Fork(1)
+public class LoginBenchmark {
+
+    private static final int USERS = 50;
+    private static final String PASSWORD = "bench-password";
+
+    private ConfigurableApplicationContext context;
+    private UsersManager usersManager;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Outcomes {
+        public long accepted;
+        public long rejected;
+        public long failed;
+    }
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(MusicAppApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:login;MODE=MySQL;DB_CLOSE_DELAY=-1",
+                        "spring.datasource.driver-class-name=org.h2.Driver",
+                        "spring.datasource.username=sa",
+                        "spring.datasource.password=",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "musicapp.suggest.refresh-ms=3600000",
+                        "logging.level.root=WARN")
+                .run();
+        usersManager = context.getBean(UsersManager.class);
+        for (int i = 0; i < USERS; i++) {
+            Users user = new Users();
+            user.setEmail(email(i));
+            user.setFullname("Bench User " + i);
+            user.setPassword(PASSWORD);
+            String added = usersManager.addUser(user);
+            if (!added.startsWith("200")) {
+                throw new IllegalStateException("Seeding " + email(i) + " failed: " + added);
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public String login(Outcomes outcomes) {
+        String response = usersManager.login(email(ThreadLocalRandom.current().nextInt(USERS)), PASSWORD);
+        if (response.startsWith("200::")) {
+            outcomes.accepted++;
+        } else if (response.startsWith("503::")) {
+            outcomes.rejected++;
+        } else {
+            outcomes.failed++;
+        }
+        return response;
+    }
+
+    private static String email(int i) {
+        return "login-" + i + "@example.com";
+    }
+}
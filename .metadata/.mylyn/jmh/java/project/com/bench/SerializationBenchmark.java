@@ -0,0 +1,75 @@
+package project.com.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import project.com.model.LikedSong;
+import project.com.model.PlaylistSong;
+import project.com.model.Song;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** Response-body serialization of the list endpoints at several list sizes. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int size;
+
+    // Same modules Spring Boot registers (java.time for createdAt)
+    private final ObjectMapper mapper = new ObjectMapper().findAndRegisterModules();
+
+    private List<Song> songs;
+    private List<LikedSong> likedSongs;
+    private List<PlaylistSong> playlistSongs;
+
+    @Setup
+    public void setUp() {
+        LocalDateTime createdAt = LocalDateTime.of(2024, 1, 1, 12, 0);
+        songs = new ArrayList<>(size);
+        likedSongs = new ArrayList<>(size);
+        playlistSongs = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            long id = i + 1;
+            Song song = BenchData.song(i);
+            song.setId(id);
+            songs.add(song);
+            likedSongs.add(new LikedSong(id, "bench@example.com", id, song.getTitle(), song.getArtist(),
+                    song.getMovieName(), song.getImage(), song.getAudioSrc(), createdAt));
+            playlistSongs.add(new PlaylistSong(id, "bench@example.com", id, song.getTitle(), song.getArtist(),
+                    song.getMovieName(), song.getImage(), song.getAudioSrc(), createdAt));
+        }
+    }
+
+    @Benchmark
+    public byte[] songs() throws Exception {
+        return mapper.writeValueAsBytes(songs);
+    }
+
+    @Benchmark
+    public byte[] likedSongs() throws Exception {
+        return mapper.writeValueAsBytes(likedSongs);
+    }
+
+    @Benchmark
+    public byte[] playlistSongs() throws Exception {
+        return mapper.writeValueAsBytes(playlistSongs);
+    }
+}
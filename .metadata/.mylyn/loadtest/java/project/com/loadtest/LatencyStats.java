@@ -0,0 +1,52 @@
+package project.com.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Every response time for one operation, in microseconds. Each listener owns
+ * its own instance, so recording takes no lock; instances are merged after
+ * the run and percentiles are exact rather than bucketed.
+ */
+class LatencyStats {
+
+    private long[] micros = new long[1024];
+    private int count;
+    private long errors;
+
+    void record(long elapsedNanos, boolean ok) {
+        if (!ok) {
+            errors++;
+        }
+        if (count == micros.length) {
+            micros = Arrays.copyOf(micros, count * 2);
+        }
+        micros[count++] = elapsedNanos / 1000;
+    }
+
+    void merge(LatencyStats other) {
+        if (count + other.count > micros.length) {
+            micros = Arrays.copyOf(micros, Math.max(micros.length * 2, count + other.count));
+        }
+        System.arraycopy(other.micros, 0, micros, count, other.count);
+        count += other.count;
+        errors += other.errors;
+    }
+
+    int count() {
+        return count;
+    }
+
+    long errors() {
+        return errors;
+    }
+
+    /** Sorts in place; call once recording has finished. */
+    double percentileMillis(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        Arrays.sort(micros, 0, count);
+        int index = (int) Math.ceil(percentile / 100.0 * count) - 1;
+        return micros[Math.max(0, Math.min(count - 1, index))] / 1000.0;
+    }
+}
@@ -0,0 +1,160 @@
+package project.com.loadtest;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * One simulated listener: a closed loop issuing requests from the mix as one
+ * user, with an optional think time between them.
+ */
+class Listener implements Runnable {
+
+    private static final Pattern NEXT_CURSOR = Pattern.compile("\"nextCursor\"\\s*:\\s*\"([^\"]+)\"");
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+    private static final int CHECK_IDS = 50;
+
+    /** Flags shared by every listener of one run. */
+    static class Control {
+        volatile boolean measuring;
+        volatile boolean stopped;
+    }
+
+    private final HttpClient client;
+    private final String baseUrl;
+    private final LoadTest.SeededUser user;
+    private final long[] songIds;
+    private final String[] searchTerms;
+    private final Operation[] schedule;
+    private final long thinkMillis;
+    private final Control control;
+    private final SplittableRandom random;
+
+    private final Map<Operation, LatencyStats> stats = new EnumMap<>(Operation.class);
+    private String cursor;
+
+    Listener(HttpClient client, String baseUrl, LoadTest.SeededUser user, long[] songIds, String[] searchTerms,
+             Operation[] schedule, long thinkMillis, Control control, long seed) {
+        this.client = client;
+        this.baseUrl = baseUrl;
+        this.user = user;
+        this.songIds = songIds;
+        this.searchTerms = searchTerms;
+        this.schedule = schedule;
+        this.thinkMillis = thinkMillis;
+        this.control = control;
+        this.random = new SplittableRandom(seed);
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new LatencyStats());
+        }
+    }
+
+    Map<Operation, LatencyStats> stats() {
+        return stats;
+    }
+
+    @Override
+    public void run() {
+        while (!control.stopped) {
+            Operation operation = schedule[random.nextInt(schedule.length)];
+            boolean measured = control.measuring;
+            long started = System.nanoTime();
+            boolean ok;
+            try {
+                ok = execute(operation);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                ok = false;
+            }
+            if (measured && control.measuring) {
+                stats.get(operation).record(System.nanoTime() - started, ok);
+            }
+            if (thinkMillis > 0) {
+                try {
+                    Thread.sleep(thinkMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private boolean execute(Operation operation) throws Exception {
+        switch (operation) {
+            case BROWSE: {
+                String url = "/api/songs?size=50" + (cursor != null ? "&cursor=" + encode(cursor) : "");
+                HttpResponse<String> response = send(get(url));
+                Matcher next = NEXT_CURSOR.matcher(response.body());
+                cursor = next.find() ? next.group(1) : null;
+                return ok(response);
+            }
+            case SEARCH:
+                return ok(send(get("/api/songs/search?size=20&q="
+                        + encode(searchTerms[random.nextInt(searchTerms.length)]))));
+            case CHECK: {
+                StringBuilder ids = new StringBuilder();
+                for (int i = 0; i < CHECK_IDS; i++) {
+                    ids.append(i == 0 ? "" : ",").append(randomSong());
+                }
+                return ok(send(authorized(get("/api/liked-songs/check?ids=" + ids))));
+            }
+            case TOGGLE:
+                return ok(send(authorized(post("/api/liked-songs/toggle", "{\"songId\":" + randomSong() + "}"))));
+            case PLAYLIST_ADD:
+                return ok(send(authorized(post("/api/playlist-songs/add", "{\"songId\":" + randomSong() + "}"))));
+            case LIBRARY:
+                return ok(send(authorized(get("/api/liked-songs"))));
+            case LOGIN: {
+                HttpResponse<String> response = send(post("/users/signin",
+                        "{\"email\":\"" + user.email + "\",\"password\":\"" + user.password + "\"}"));
+                return ok(response) && response.body().startsWith("200::");
+            }
+            default:
+                throw new IllegalStateException(operation.name());
+        }
+    }
+
+    private long randomSong() {
+        return songIds[random.nextInt(songIds.length)];
+    }
+
+    private HttpRequest.Builder get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(TIMEOUT).GET();
+    }
+
+    private HttpRequest.Builder post(String path, String json) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json));
+    }
+
+    private HttpRequest.Builder authorized(HttpRequest.Builder request) {
+        return request.header("Authorization", user.token);
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) throws Exception {
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static boolean ok(HttpResponse<?> response) {
+        int status = response.statusCode();
+        return (status >= 200 && status < 300) || status == 304;
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,303 @@
+package project.com.loadtest;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import project.com.MusicAppApplication;
+import project.com.model.JWTManager;
+import project.com.model.LikedSong;
+import project.com.model.Song;
+import project.com.model.Users;
+import project.com.model.UsersManager;
+import project.com.service.LikedSongService;
+import project.com.service.SongService;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Boots the application on an in-memory H2 database (loadtest profile),
+ * seeds a synthetic catalog and user base, then drives the HTTP API with a
+ * closed-loop request mix at each requested concurrency and prints
+ * throughput and latency percentiles per operation.
+ *
+ * Options, all --name=value:
+ *   songs (5000), users (200), likes-per-user (20),
+ *   concurrency (10,50,100) - one measured run per level,
+ *   warmup-seconds (10), duration-seconds (30), think-ms (0),
+ *   thread-modes (platform) - platform and/or virtual server request threads
+ *     (virtual needs Java 21 or later and is refused up front on older JVMs),
+ *   mix (BROWSE:30,SEARCH:10,...), seed (42), password-iterations,
+ *   out (loadtest-results.csv) - rows are appended so runs can be compared.
+ */
+public class LoadTest {
+
+    private static final String[] WORDS = {
+            "love", "night", "rain", "dance", "heart", "dream", "fire", "river", "moon", "song",
+            "light", "road", "sky", "ocean", "star", "summer", "shadow", "golden", "wild", "silent"};
+    private static final String[] GENRES = {"Melody", "Folk", "Classical", "Dance", "Devotional", "Rock"};
+
+    static class SeededUser {
+        final String email;
+        final String password;
+        final String token;
+
+        SeededUser(String email, String password, String token) {
+            this.email = email;
+            this.password = password;
+            this.token = token;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        int songs = Integer.parseInt(options.getOrDefault("songs", "5000"));
+        int users = Integer.parseInt(options.getOrDefault("users", "200"));
+        int likesPerUser = Integer.parseInt(options.getOrDefault("likes-per-user", "20"));
+        long warmupSeconds = Long.parseLong(options.getOrDefault("warmup-seconds", "10"));
+        long durationSeconds = Long.parseLong(options.getOrDefault("duration-seconds", "30"));
+        long thinkMillis = Long.parseLong(options.getOrDefault("think-ms", "0"));
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        Operation[] schedule = schedule(options.get("mix"));
+        Path out = Paths.get(options.getOrDefault("out", "loadtest-results.csv"));
+
+        List<Integer> levels = new ArrayList<>();
+        for (String level : options.getOrDefault("concurrency", "10,50,100").split(",")) {
+            levels.add(Integer.parseInt(level.trim()));
+        }
+
+        String[] modes = options.getOrDefault("thread-modes", "platform").split(",");
+        for (String mode : modes) {
+            String name = mode.trim();
+            if (!name.equalsIgnoreCase("platform") && !name.equalsIgnoreCase("virtual")) {
+                throw new IllegalArgumentException("Unknown thread mode: " + name);
+            }
+            // Checked before any run, so no row is ever labelled virtual while running on platform threads
+            if (name.equalsIgnoreCase("virtual") && Runtime.version().feature() < 21) {
+                throw new IllegalArgumentException("thread-modes=virtual needs Java 21 or later; running on "
+                        + Runtime.version());
+            }
+        }
+
+        for (String mode : modes) {
+            boolean virtual = mode.trim().equalsIgnoreCase("virtual");
+            List<String> properties = new ArrayList<>();
+            properties.add("spring.threads.virtual.enabled=" + virtual);
+            // Fresh database per mode so both runs start from the same seed
+            properties.add("spring.datasource.url=jdbc:h2:mem:loadtest-" + mode.trim() + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+            if (options.containsKey("password-iterations")) {
+                properties.add("musicapp.password.iterations=" + options.get("password-iterations"));
+            }
+
+            try (ConfigurableApplicationContext context = new SpringApplicationBuilder(MusicAppApplication.class)
+                    .profiles("loadtest")
+                    .properties(properties.toArray(new String[0]))
+                    .run()) {
+                String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+                System.out.printf("%n== %s request threads, %s ==%n", mode.trim(), baseUrl);
+
+                long started = System.nanoTime();
+                long[] songIds = seedCatalog(context, songs);
+                List<SeededUser> seeded = seedUsers(context, users, likesPerUser, songIds, seed);
+                System.out.printf("Seeded %d songs and %d users in %d ms%n", songIds.length, seeded.size(),
+                        (System.nanoTime() - started) / 1_000_000);
+
+                HttpClient client = HttpClient.newBuilder()
+                        .version(HttpClient.Version.HTTP_1_1)
+                        .connectTimeout(Duration.ofSeconds(5))
+                        .build();
+                for (int level : levels) {
+                    Map<Operation, LatencyStats> results = run(client, baseUrl, seeded, songIds, schedule,
+                            level, warmupSeconds, durationSeconds, thinkMillis, seed);
+                    report(mode.trim(), level, durationSeconds, results, out);
+                }
+            }
+        }
+        System.out.printf("%nResults appended to %s%n", out.toAbsolutePath());
+    }
+
+    private static Map<Operation, LatencyStats> run(HttpClient client, String baseUrl, List<SeededUser> users,
+                                                    long[] songIds, Operation[] schedule, int concurrency,
+                                                    long warmupSeconds, long durationSeconds, long thinkMillis,
+                                                    long seed) throws InterruptedException {
+        Listener.Control control = new Listener.Control();
+        List<Listener> listeners = new ArrayList<>(concurrency);
+        List<Thread> threads = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            Listener listener = new Listener(client, baseUrl, users.get(i % users.size()), songIds, WORDS,
+                    schedule, thinkMillis, control, seed + i);
+            listeners.add(listener);
+            // One thread per listener: a blocking closed loop, like a browser tab
+            Thread thread = new Thread(listener, "listener-" + i);
+            thread.setDaemon(true);
+            thread.start();
+            threads.add(thread);
+        }
+
+        Thread.sleep(warmupSeconds * 1000);
+        control.measuring = true;
+        Thread.sleep(durationSeconds * 1000);
+        control.measuring = false;
+        control.stopped = true;
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Map<Operation, LatencyStats> merged = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            merged.put(operation, new LatencyStats());
+        }
+        for (Listener listener : listeners) {
+            listener.stats().forEach((operation, stats) -> merged.get(operation).merge(stats));
+        }
+        return merged;
+    }
+
+    private static void report(String mode, int concurrency, long durationSeconds,
+                               Map<Operation, LatencyStats> results, Path out) throws IOException {
+        LatencyStats all = new LatencyStats();
+        results.values().forEach(all::merge);
+
+        boolean header = !Files.exists(out);
+        try (PrintWriter csv = new PrintWriter(Files.newBufferedWriter(out, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND))) {
+            if (header) {
+                csv.println("mode,concurrency,operation,requests,errors,rps,p50_ms,p95_ms,p99_ms,max_ms");
+            }
+            System.out.printf("%nconcurrency %d%n%-13s %9s %7s %9s %9s %9s %9s %9s%n", concurrency,
+                    "operation", "requests", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms");
+            for (Map.Entry<Operation, LatencyStats> entry : results.entrySet()) {
+                row(csv, mode, concurrency, entry.getKey().name(), entry.getValue(), durationSeconds);
+            }
+            row(csv, mode, concurrency, "ALL", all, durationSeconds);
+        }
+    }
+
+    private static void row(PrintWriter csv, String mode, int concurrency, String name, LatencyStats stats,
+                            long durationSeconds) {
+        double rps = stats.count() / (double) durationSeconds;
+        double p50 = stats.percentileMillis(50);
+        double p95 = stats.percentileMillis(95);
+        double p99 = stats.percentileMillis(99);
+        double max = stats.percentileMillis(100);
+        System.out.printf("%-13s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n",
+                name, stats.count(), stats.errors(), rps, p50, p95, p99, max);
+        csv.printf("%s,%d,%s,%d,%d,%.1f,%.2f,%.2f,%.2f,%.2f%n",
+                mode, concurrency, name, stats.count(), stats.errors(), rps, p50, p95, p99, max);
+    }
+
+    private static long[] seedCatalog(ConfigurableApplicationContext context, int count) {
+        SongService songService = context.getBean(SongService.class);
+        SplittableRandom random = new SplittableRandom(7);
+        long[] ids = new long[count];
+        for (int from = 0; from < count; from += 1000) {
+            List<Song> batch = new ArrayList<>();
+            for (int i = from; i < Math.min(count, from + 1000); i++) {
+                Song song = new Song();
+                song.setTitle(WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + i);
+                song.setArtist("Artist " + random.nextInt(300));
+                song.setMovieName("Movie " + random.nextInt(800));
+                song.setGenre(GENRES[random.nextInt(GENRES.length)]);
+                song.setAudioSrc("/songs/loadtest-" + i + ".mp3");
+                song.setImage("/images/loadtest-" + (i % 800) + ".jpg");
+                batch.add(song);
+            }
+            songService.saveSongs(batch);
+            for (int i = 0; i < batch.size(); i++) {
+                ids[from + i] = batch.get(i).getId();
+            }
+        }
+        return ids;
+    }
+
+    private static List<SeededUser> seedUsers(ConfigurableApplicationContext context, int count, int likesPerUser,
+                                              long[] songIds, long seed) throws Exception {
+        UsersManager usersManager = context.getBean(UsersManager.class);
+        JWTManager jwtManager = context.getBean(JWTManager.class);
+        LikedSongService likedSongService = context.getBean(LikedSongService.class);
+
+        ExecutorService pool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        try {
+            List<Future<SeededUser>> pending = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int index = i;
+                pending.add(pool.submit(() -> {
+                    Users user = new Users();
+                    user.setEmail("listener" + index + "@loadtest.local");
+                    user.setFullname("Listener " + index);
+                    user.setPassword("loadtest-" + index);
+                    String added = usersManager.addUser(user);
+                    if (!added.startsWith("200::")) {
+                        throw new IllegalStateException("Could not seed " + user.getEmail() + ": " + added);
+                    }
+                    SplittableRandom random = new SplittableRandom(seed * 31 + index);
+                    for (int like = 0; like < likesPerUser; like++) {
+                        LikedSong liked = new LikedSong();
+                        liked.setSongId(songIds[random.nextInt(songIds.length)]);
+                        likedSongService.toggleLikeSong(user.getEmail(), liked);
+                    }
+                    return new SeededUser(user.getEmail(), user.getPassword(),
+                            jwtManager.generateToken(user.getEmail()));
+                }));
+            }
+            List<SeededUser> seeded = new ArrayList<>(count);
+            for (Future<SeededUser> user : pending) {
+                seeded.add(user.get());
+            }
+            return seeded;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static Operation[] schedule(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        if (mix == null) {
+            for (Operation operation : Operation.values()) {
+                weights.put(operation, operation.defaultWeight);
+            }
+        } else {
+            for (String part : mix.split(",")) {
+                String[] pair = part.trim().split(":");
+                weights.put(Operation.valueOf(pair[0].trim().toUpperCase()), Integer.parseInt(pair[1].trim()));
+            }
+        }
+        List<Operation> slots = new ArrayList<>();
+        weights.forEach((operation, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                slots.add(operation);
+            }
+        });
+        if (slots.isEmpty()) {
+            throw new IllegalArgumentException("Request mix has no weight");
+        }
+        return slots.toArray(new Operation[0]);
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            int split = arg.indexOf('=');
+            options.put(arg.substring(2, split), arg.substring(split + 1));
+        }
+        return options;
+    }
+}
@@ -0,0 +1,18 @@
+package project.com.loadtest;
+
+/** The request mix; weights are relative and can be overridden with --mix. */
+enum Operation {
+    BROWSE(30),
+    SEARCH(10),
+    CHECK(25),
+    TOGGLE(15),
+    PLAYLIST_ADD(10),
+    LIBRARY(5),
+    LOGIN(5);
+
+    final int defaultWeight;
+
+    Operation(int defaultWeight) {
+        this.defaultWeight = defaultWeight;
+    }
+}
@@ -1,13 +1,29 @@
 package project.com;
 
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class MusicAppApplication {
 
+	@Value("${spring.threads.virtual.enabled:false}")
+	private boolean virtualThreads;
+
 	public static void main(String[] args) {
 		SpringApplication.run(MusicAppApplication.class, args);
 	}
 
+	@PostConstruct
+	void checkExecutionMode() {
+		// Below Java 21 Spring Boot ignores the flag and quietly stays on platform threads
+		if (virtualThreads && Runtime.version().feature() < 21) {
+			throw new IllegalStateException("spring.threads.virtual.enabled=true needs Java 21 or later; running on "
+					+ Runtime.version());
+		}
+	}
+
 }
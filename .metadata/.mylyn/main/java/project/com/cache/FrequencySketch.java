@@ -0,0 +1,75 @@
+package project.com.cache;
+
+/**
+ * Count-min sketch of 4-bit counters used to estimate how often a key has been
+ * seen recently. Counters are halved once enough samples are recorded, so old
+ * popularity fades. Not thread-safe; callers synchronize.
+ */
+class FrequencySketch {
+
+    private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+    };
+    private static final long RESET_MASK = 0x7777777777777777L;
+
+    private final long[] table;
+    private final int sampleSize;
+    private int samples;
+
+    FrequencySketch(int maxSize) {
+        int capacity = Integer.highestOneBit(Math.max(8, maxSize - 1)) << 1;
+        this.table = new long[capacity];
+        this.sampleSize = 10 * Math.max(1, maxSize);
+    }
+
+    int frequency(Object key) {
+        int hash = spread(key.hashCode());
+        int min = 15;
+        for (int i = 0; i < 4; i++) {
+            int index = indexOf(hash, i);
+            int offset = counterOffset(hash, i);
+            min = Math.min(min, (int) ((table[index] >>> offset) & 0xfL));
+        }
+        return min;
+    }
+
+    void increment(Object key) {
+        int hash = spread(key.hashCode());
+        boolean added = false;
+        for (int i = 0; i < 4; i++) {
+            int index = indexOf(hash, i);
+            int offset = counterOffset(hash, i);
+            if (((table[index] >>> offset) & 0xfL) != 0xfL) {
+                table[index] += 1L << offset;
+                added = true;
+            }
+        }
+        if (added && ++samples >= sampleSize) {
+            reset();
+        }
+    }
+
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        samples /= 2;
+    }
+
+    private int indexOf(int hash, int depth) {
+        long h = (hash + SEEDS[depth]) * SEEDS[depth];
+        h += h >>> 32;
+        return (int) h & (table.length - 1);
+    }
+
+    private static int counterOffset(int hash, int depth) {
+        // 16 counters of 4 bits per long
+        return (((hash >>> (depth << 3)) & 3) << 2) + (depth << 4);
+    }
+
+    private static int spread(int x) {
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        return (x >>> 16) ^ x;
+    }
+}
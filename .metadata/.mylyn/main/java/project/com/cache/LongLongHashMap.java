@@ -0,0 +1,99 @@
+package project.com.cache;
+
+/**
+ * Open-addressing hash map from long to long. Avoids a map node and two
+ * boxed Longs per entry, which matters for maps sized by the catalog.
+ * Not thread-safe.
+ */
+public class LongLongHashMap {
+
+    private static final long EMPTY = 0L;
+
+    private long[] keys;
+    private long[] values;
+    private boolean containsEmpty;
+    private long emptyValue;
+    private int size;
+
+    public LongLongHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1;
+        this.keys = new long[capacity];
+        this.values = new long[capacity];
+    }
+
+    /**
+     * @return the value mapped to the key, or absent when there is none
+     */
+    public long get(long key, long absent) {
+        if (key == EMPTY) {
+            return containsEmpty ? emptyValue : absent;
+        }
+        int mask = keys.length - 1;
+        for (int i = mix(key) & mask; ; i = (i + 1) & mask) {
+            long slot = keys[i];
+            if (slot == EMPTY) {
+                return absent;
+            }
+            if (slot == key) {
+                return values[i];
+            }
+        }
+    }
+
+    /**
+     * @return true if the key was not already mapped
+     */
+    public boolean putIfAbsent(long key, long value) {
+        if (key == EMPTY) {
+            if (containsEmpty) {
+                return false;
+            }
+            containsEmpty = true;
+            emptyValue = value;
+            size++;
+            return true;
+        }
+        int mask = keys.length - 1;
+        int i = mix(key) & mask;
+        while (keys[i] != EMPTY) {
+            if (keys[i] == key) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = value;
+        size++;
+        if (size * 2 > keys.length) {
+            resize(keys.length << 1);
+        }
+        return true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        keys = new long[capacity];
+        values = new long[capacity];
+        int mask = capacity - 1;
+        for (int k = 0; k < oldKeys.length; k++) {
+            if (oldKeys[k] != EMPTY) {
+                int i = mix(oldKeys[k]) & mask;
+                while (keys[i] != EMPTY) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[k];
+                values[i] = oldValues[k];
+            }
+        }
+    }
+
+    private static int mix(long value) {
+        long h = value * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,107 @@
+package project.com.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Small bounded LRU map with optional per-entry expiry and hit/miss counters.
+ * Entries past their expiry are treated as misses and dropped on access.
+ */
+public class LruCache<K, V> {
+
+    private final int maxSize;
+    private final long ttlMillis;
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param maxSize   maximum number of entries kept
+     * @param ttlMillis default time to live, or 0 for entries that never expire
+     */
+    public LruCache(int maxSize, long ttlMillis) {
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+        this.entries = new LinkedHashMap<K, Entry<V>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > LruCache.this.maxSize;
+            }
+        };
+    }
+
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (entry.expiresAt != 0 && entry.expiresAt <= System.currentTimeMillis()) {
+            entries.remove(key);
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.value;
+    }
+
+    public void put(K key, V value) {
+        put(key, value, ttlMillis == 0 ? 0 : System.currentTimeMillis() + ttlMillis);
+    }
+
+    /**
+     * Stores a value that expires at the given epoch millis (0 = never).
+     */
+    public synchronized void put(K key, V value, long expiresAt) {
+        entries.put(key, new Entry<>(value, expiresAt));
+    }
+
+    /**
+     * Stores the value unless a live entry already exists, and returns whichever
+     * value ends up cached.
+     */
+    public synchronized V putIfAbsent(K key, V value) {
+        Entry<V> existing = entries.get(key);
+        if (existing != null && (existing.expiresAt == 0 || existing.expiresAt > System.currentTimeMillis())) {
+            return existing.value;
+        }
+        entries.put(key, new Entry<>(value, ttlMillis == 0 ? 0 : System.currentTimeMillis() + ttlMillis));
+        return value;
+    }
+
+    public synchronized void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    private static final class Entry<V> {
+        final V value;
+        final long expiresAt;
+
+        Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
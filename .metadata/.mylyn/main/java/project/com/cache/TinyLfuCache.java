@@ -0,0 +1,234 @@
+package project.com.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache with W-TinyLFU style eviction: new entries land in a small LRU
+ * window, and an entry leaving the window only displaces the main region's LRU
+ * victim if the frequency sketch says it is accessed more often. One-off
+ * lookups therefore cannot flush out the hot set. Entries also expire after a
+ * fixed time to live.
+ *
+ * Keys are spread over independently locked segments, each with its own
+ * window, main region and sketch, so concurrent readers of different keys
+ * rarely meet on the same lock.
+ */
+public class TinyLfuCache<K, V> {
+
+    // Segments stay at least this large so small caches keep a usable window
+    private static final int MIN_SEGMENT_SIZE = 64;
+    private static final int MAX_SEGMENTS = 16;
+
+    private final int maxSize;
+    private final long ttlMillis;
+    private final Segment<K, V>[] segments;
+    private final int segmentMask;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param maxSize   maximum number of entries kept
+     * @param ttlMillis time to live of each entry, or 0 for no expiry
+     */
+    @SuppressWarnings("unchecked")
+    public TinyLfuCache(int maxSize, long ttlMillis) {
+        this.maxSize = Math.max(2, maxSize);
+        this.ttlMillis = ttlMillis;
+        int count = 1;
+        while (count < MAX_SEGMENTS && this.maxSize / (count * 2) >= MIN_SEGMENT_SIZE) {
+            count *= 2;
+        }
+        this.segments = new Segment[count];
+        this.segmentMask = count - 1;
+        for (int i = 0; i < count; i++) {
+            // Spread the remainder so the segments add up to maxSize
+            segments[i] = new Segment<>(this.maxSize / count + (i < this.maxSize % count ? 1 : 0), evictions);
+        }
+    }
+
+    public V get(K key) {
+        V value = segmentFor(key).get(key);
+        if (value == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return value;
+    }
+
+    public void put(K key, V value) {
+        segmentFor(key).put(key, value, expiry());
+    }
+
+    /**
+     * Token for a read-through load of the key. Pass it to putIfUnchanged so
+     * a value loaded before a concurrent invalidate or clear is not cached.
+     */
+    public long stamp(K key) {
+        return segmentFor(key).stamp();
+    }
+
+    /** Caches the value unless the key's segment was invalidated since the stamp was taken. */
+    public boolean putIfUnchanged(K key, V value, long stamp) {
+        return segmentFor(key).putIfUnchanged(key, value, stamp, expiry());
+    }
+
+    public void invalidate(K key) {
+        segmentFor(key).invalidate(key);
+    }
+
+    public void clear() {
+        for (Segment<K, V> segment : segments) {
+            segment.clear();
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment<K, V> segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    public double getHitRatio() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0.0 : (double) h / total;
+    }
+
+    private Segment<K, V> segmentFor(K key) {
+        int h = key.hashCode();
+        // The sketch spreads its own hash; this only picks the segment
+        h ^= h >>> 16;
+        return segments[(h * 0x9E3779B9 >>> 16) & segmentMask];
+    }
+
+    private long expiry() {
+        return ttlMillis == 0 ? 0 : System.currentTimeMillis() + ttlMillis;
+    }
+
+    private static final class Segment<K, V> {
+
+        private final int maxSize;
+        private final int windowSize;
+        private final LinkedHashMap<K, Entry<V>> window = new LinkedHashMap<>(16, 0.75f, true);
+        private final LinkedHashMap<K, Entry<V>> main = new LinkedHashMap<>(16, 0.75f, true);
+        private final FrequencySketch sketch;
+        private final LongAdder evictions;
+        // Bumped by every invalidate and clear
+        private long generation;
+
+        Segment(int maxSize, LongAdder evictions) {
+            this.maxSize = Math.max(2, maxSize);
+            this.windowSize = Math.max(1, this.maxSize / 100);
+            this.sketch = new FrequencySketch(this.maxSize);
+            this.evictions = evictions;
+        }
+
+        synchronized V get(K key) {
+            sketch.increment(key);
+            Entry<V> entry = main.get(key);
+            if (entry == null) {
+                entry = window.get(key);
+            }
+            if (entry == null) {
+                return null;
+            }
+            if (entry.expiresAt != 0 && entry.expiresAt <= System.currentTimeMillis()) {
+                main.remove(key);
+                window.remove(key);
+                return null;
+            }
+            return entry.value;
+        }
+
+        synchronized long stamp() {
+            return generation;
+        }
+
+        synchronized boolean putIfUnchanged(K key, V value, long stamp, long expiresAt) {
+            if (generation != stamp) {
+                return false;
+            }
+            put(key, value, expiresAt);
+            return true;
+        }
+
+        synchronized void put(K key, V value, long expiresAt) {
+            Entry<V> entry = new Entry<>(value, expiresAt);
+            if (main.containsKey(key)) {
+                main.put(key, entry);
+                return;
+            }
+            window.put(key, entry);
+            if (window.size() > windowSize) {
+                Iterator<Map.Entry<K, Entry<V>>> it = window.entrySet().iterator();
+                Map.Entry<K, Entry<V>> candidate = it.next();
+                it.remove();
+                admit(candidate.getKey(), candidate.getValue());
+            }
+        }
+
+        synchronized void invalidate(K key) {
+            generation++;
+            main.remove(key);
+            window.remove(key);
+        }
+
+        synchronized void clear() {
+            generation++;
+            main.clear();
+            window.clear();
+        }
+
+        synchronized int size() {
+            return main.size() + window.size();
+        }
+
+        private void admit(K key, Entry<V> entry) {
+            if (main.size() < maxSize - windowSize) {
+                main.put(key, entry);
+                return;
+            }
+            Iterator<Map.Entry<K, Entry<V>>> it = main.entrySet().iterator();
+            Map.Entry<K, Entry<V>> victim = it.next();
+            if (sketch.frequency(key) > sketch.frequency(victim.getKey())) {
+                it.remove();
+                main.put(key, entry);
+            }
+            evictions.increment();
+        }
+    }
+
+    private static final class Entry<V> {
+        final V value;
+        final long expiresAt;
+
+        Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package project.com.cache;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * One user's set of song ids with its own lock. A ReentrantLock rather than a
+ * monitor, because callers hold it across JDBC calls and a monitor would pin
+ * a virtual thread to its carrier for the whole round trip.
+ */
+public class UserSongSet {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LongHashSet songIds;
+
+    public UserSongSet(int expectedSize) {
+        this.songIds = new LongHashSet(expectedSize);
+    }
+
+    public void lock() {
+        lock.lock();
+    }
+
+    public void unlock() {
+        lock.unlock();
+    }
+
+    public boolean contains(long songId) {
+        lock.lock();
+        try {
+            return songIds.contains(songId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean add(long songId) {
+        lock.lock();
+        try {
+            return songIds.add(songId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean remove(long songId) {
+        lock.lock();
+        try {
+            return songIds.remove(songId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return songIds.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package project.com.cache;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Monotonic change counters, one global and optionally one per key (user).
+ * Each per-key version is stamped from the global sequence, so a key is never
+ * handed a version it had before, even across different keys.
+ */
+public class VersionCounter {
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final ConcurrentHashMap<String, Long> versions = new ConcurrentHashMap<>();
+
+    public long bump() {
+        return sequence.incrementAndGet();
+    }
+
+    public long bump(String key) {
+        long version = sequence.incrementAndGet();
+        versions.merge(key, version, Math::max);
+        return version;
+    }
+
+    public long version() {
+        return sequence.get();
+    }
+
+    public long version(String key) {
+        return versions.getOrDefault(key, 0L);
+    }
+}
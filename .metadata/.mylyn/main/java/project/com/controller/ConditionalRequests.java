@@ -0,0 +1,81 @@
+package project.com.controller;
+
+import project.com.model.LikedSong;
+import project.com.model.PlaylistSong;
+
+import java.util.List;
+
+/**
+ * Strong ETags built from version counters rather than from the response body.
+ * The boot time is folded in because counters restart with the process.
+ *
+ * Library lists written by the other app have no counter here, so those are
+ * tagged from their rows instead; both apps compute the same tag for the same
+ * rows, so a client can move between them without a wrong 304. Row hashes
+ * are summed because the two apps need not list rows in the same order.
+ */
+public final class ConditionalRequests {
+
+    private static final long BOOT_EPOCH = System.currentTimeMillis();
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private ConditionalRequests() {
+    }
+
+    static String etag(String scope, long... versions) {
+        StringBuilder tag = new StringBuilder("\"").append(scope).append('-').append(Long.toString(BOOT_EPOCH, 36));
+        for (long version : versions) {
+            tag.append('-').append(Long.toString(version, 36));
+        }
+        return tag.append('"').toString();
+    }
+
+    public static String likedEtag(List<LikedSong> songs) {
+        long hash = songs.size();
+        for (LikedSong song : songs) {
+            hash += mix(FNV_OFFSET, song.getId(), song.getSongId(), song.getSongTitle(), song.getArtist(),
+                    song.getMovieName(), song.getImageUrl(), song.getAudioSrc());
+        }
+        return contentTag("liked", hash);
+    }
+
+    public static String playlistEtag(List<PlaylistSong> songs) {
+        long hash = songs.size();
+        for (PlaylistSong song : songs) {
+            hash += mix(FNV_OFFSET, song.getId(), song.getSongId(), song.getSongTitle(), song.getArtist(),
+                    song.getMovieName(), song.getImageUrl(), song.getAudioSrc());
+        }
+        return contentTag("playlist", hash);
+    }
+
+    public static boolean notModified(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.equals("*") || value.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // FNV-1a over each field's text, with a separator so ("ab", "c") and ("a", "bc") differ
+    private static long mix(long hash, Object... fields) {
+        for (Object field : fields) {
+            String text = String.valueOf(field);
+            for (int i = 0; i < text.length(); i++) {
+                hash = (hash ^ text.charAt(i)) * FNV_PRIME;
+            }
+            hash = (hash ^ 0xFFFF) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    private static String contentTag(String scope, long hash) {
+        // No boot time: the tag must not depend on which process served the rows
+        return "\"" + scope + "-rows-" + Long.toUnsignedString(hash, 36) + "\"";
+    }
+}
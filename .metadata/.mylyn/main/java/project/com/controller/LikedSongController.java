@@ -1,34 +1,61 @@
 package project.com.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import project.com.model.JWTManager;
 import project.com.model.LikedSong;
 import project.com.service.LikedSongService;
+import project.com.service.SongService;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/liked-songs")
 @CrossOrigin(origins = "*")
 public class LikedSongController {
 
+    private static final int MAX_BATCH_IDS = 500;
+    private static final String READ_ONLY = "Library changes are handled by the reactive service";
+
     @Autowired
     private LikedSongService likedSongService;
 
     @Autowired
     private JWTManager jwtManager;
 
+    @Autowired
+    private SongService songService;
+
     @GetMapping
-    public ResponseEntity<?> getLikedSongs(@RequestHeader("Authorization") String token) {
+    public ResponseEntity<?> getLikedSongs(
+            @RequestHeader("Authorization") String token,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         String userEmail = jwtManager.validateToken(token);
         if (userEmail.equals("401")) {
             return ResponseEntity.status(401).body("Invalid or expired token");
         }
+        if (!likedSongService.ownsWrites()) {
+            // The version counters only see this app's writes, so tag the rows themselves
+            List<LikedSong> rows = likedSongService.getLikedSongs(userEmail);
+            String rowsTag = ConditionalRequests.likedEtag(rows);
+            if (ConditionalRequests.notModified(ifNoneMatch, rowsTag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(rowsTag).build();
+            }
+            return ResponseEntity.ok().eTag(rowsTag).header(HttpHeaders.CACHE_CONTROL, "no-cache").body(rows);
+        }
+        // Details may be joined from Song, so catalog changes also change the tag
+        String etag = ConditionalRequests.etag("liked",
+                songService.getCatalogVersion(), likedSongService.getLibraryVersion(userEmail));
+        if (ConditionalRequests.notModified(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
         List<LikedSong> likedSongs = likedSongService.getLikedSongs(userEmail);
-        return ResponseEntity.ok(likedSongs);
+        return ResponseEntity.ok().eTag(etag).header(HttpHeaders.CACHE_CONTROL, "no-cache").body(likedSongs);
     }
 
     @PostMapping("/toggle")
@@ -39,6 +66,9 @@ public class LikedSongController {
         if (userEmail.equals("401")) {
             return ResponseEntity.status(401).body("Invalid or expired token");
         }
+        if (!likedSongService.ownsWrites()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(READ_ONLY);
+        }
         boolean isLiked = likedSongService.toggleLikeSong(userEmail, song);
         return ResponseEntity.ok(Map.of("liked", isLiked));
     }
@@ -54,4 +84,19 @@ public class LikedSongController {
         boolean isLiked = likedSongService.isSongLiked(userEmail, songId);
         return ResponseEntity.ok(Map.of("liked", isLiked));
     }
-} 
\ No newline at end of file
+
+    @GetMapping("/check")
+    public ResponseEntity<?> checkSongs(
+            @RequestHeader("Authorization") String token,
+            @RequestParam List<Long> ids) {
+        String userEmail = jwtManager.validateToken(token);
+        if (userEmail.equals("401")) {
+            return ResponseEntity.status(401).body("Invalid or expired token");
+        }
+        if (ids.size() > MAX_BATCH_IDS) {
+            return ResponseEntity.badRequest().body("At most " + MAX_BATCH_IDS + " song ids per request");
+        }
+        Set<Long> matched = likedSongService.getLikedSongIds(userEmail, ids);
+        return ResponseEntity.ok(Map.of("liked", matched));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,71 @@
+package project.com.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import project.com.model.JWTManager;
+import project.com.model.PlayEvent;
+import project.com.plays.PlayTracker;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/plays")
+@CrossOrigin(origins = "*")
+public class PlayController {
+
+    private static final int MAX_BATCH_EVENTS = 500;
+    private static final int MAX_TOP = 100;
+
+    @Autowired
+    private PlayTracker playTracker;
+
+    @Autowired
+    private JWTManager jwtManager;
+
+    // One event per finished play; a client sending progress updates would count extra plays
+    @PostMapping
+    public ResponseEntity<?> recordPlay(
+            @RequestHeader("Authorization") String token,
+            @RequestBody PlayEvent event) {
+        String userEmail = jwtManager.validateToken(token);
+        if (userEmail.equals("401")) {
+            return ResponseEntity.status(401).body("Invalid or expired token");
+        }
+        if (event.getSongId() == null) {
+            return ResponseEntity.badRequest().body("songId is required");
+        }
+        if (!playTracker.record(event.getSongId(), event.getPositionSeconds())) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Server busy, please try again.");
+        }
+        return ResponseEntity.accepted().build();
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<?> recordPlays(
+            @RequestHeader("Authorization") String token,
+            @RequestBody List<PlayEvent> events) {
+        String userEmail = jwtManager.validateToken(token);
+        if (userEmail.equals("401")) {
+            return ResponseEntity.status(401).body("Invalid or expired token");
+        }
+        if (events.size() > MAX_BATCH_EVENTS) {
+            return ResponseEntity.badRequest().body("At most " + MAX_BATCH_EVENTS + " events per request");
+        }
+        int accepted = 0;
+        for (PlayEvent event : events) {
+            if (event.getSongId() != null && playTracker.record(event.getSongId(), event.getPositionSeconds())) {
+                accepted++;
+            }
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(Map.of("accepted", accepted, "dropped", events.size() - accepted));
+    }
+
+    @GetMapping("/top")
+    public ResponseEntity<?> topSongs(@RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(playTracker.topSongs(Math.max(1, Math.min(limit, MAX_TOP))));
+    }
+}
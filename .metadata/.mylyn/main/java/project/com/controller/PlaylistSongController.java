@@ -1,34 +1,65 @@
 package project.com.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import project.com.model.JWTManager;
 import project.com.model.PlaylistSong;
 import project.com.service.PlaylistSongService;
+import project.com.service.SongService;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/playlist-songs")
 @CrossOrigin(origins = "*")
 public class PlaylistSongController {
 
+    private static final int MAX_BATCH_IDS = 500;
+    private static final String READ_ONLY = "Library changes are handled by the reactive service";
+
     @Autowired
     private PlaylistSongService playlistSongService;
 
     @Autowired
     private JWTManager jwtManager;
 
+    @Autowired
+    private SongService songService;
+
+    @Value("${musicapp.bulk.max-rows:10000}")
+    private int maxBulkRows;
+
     @GetMapping
-    public ResponseEntity<?> getPlaylistSongs(@RequestHeader("Authorization") String token) {
+    public ResponseEntity<?> getPlaylistSongs(
+            @RequestHeader("Authorization") String token,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         String userEmail = jwtManager.validateToken(token);
         if (userEmail.equals("401")) {
             return ResponseEntity.status(401).body("Invalid or expired token");
         }
+        if (!playlistSongService.ownsWrites()) {
+            // The version counters only see this app's writes, so tag the rows themselves
+            List<PlaylistSong> rows = playlistSongService.getPlaylistSongs(userEmail);
+            String rowsTag = ConditionalRequests.playlistEtag(rows);
+            if (ConditionalRequests.notModified(ifNoneMatch, rowsTag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(rowsTag).build();
+            }
+            return ResponseEntity.ok().eTag(rowsTag).header(HttpHeaders.CACHE_CONTROL, "no-cache").body(rows);
+        }
+        // Details may be joined from Song, so catalog changes also change the tag
+        String etag = ConditionalRequests.etag("playlist",
+                songService.getCatalogVersion(), playlistSongService.getLibraryVersion(userEmail));
+        if (ConditionalRequests.notModified(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
         List<PlaylistSong> playlistSongs = playlistSongService.getPlaylistSongs(userEmail);
-        return ResponseEntity.ok(playlistSongs);
+        return ResponseEntity.ok().eTag(etag).header(HttpHeaders.CACHE_CONTROL, "no-cache").body(playlistSongs);
     }
 
     @PostMapping("/add")
@@ -39,10 +70,31 @@ public class PlaylistSongController {
         if (userEmail.equals("401")) {
             return ResponseEntity.status(401).body("Invalid or expired token");
         }
+        if (!playlistSongService.ownsWrites()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(READ_ONLY);
+        }
         boolean added = playlistSongService.addToPlaylist(userEmail, song);
         return ResponseEntity.ok(Map.of("added", added));
     }
 
+    @PostMapping("/bulk")
+    public ResponseEntity<?> addAllToPlaylist(
+            @RequestHeader("Authorization") String token,
+            @RequestBody List<PlaylistSong> songs) {
+        String userEmail = jwtManager.validateToken(token);
+        if (userEmail.equals("401")) {
+            return ResponseEntity.status(401).body("Invalid or expired token");
+        }
+        if (!playlistSongService.ownsWrites()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(READ_ONLY);
+        }
+        if (songs.size() > maxBulkRows) {
+            return ResponseEntity.badRequest().body("At most " + maxBulkRows + " songs per request");
+        }
+        int added = playlistSongService.addAllToPlaylist(userEmail, songs);
+        return ResponseEntity.ok(Map.of("added", added, "skipped", songs.size() - added));
+    }
+
     @DeleteMapping("/remove/{songId}")
     public ResponseEntity<?> removeFromPlaylist(
             @RequestHeader("Authorization") String token,
@@ -51,6 +103,9 @@ public class PlaylistSongController {
         if (userEmail.equals("401")) {
             return ResponseEntity.status(401).body("Invalid or expired token");
         }
+        if (!playlistSongService.ownsWrites()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(READ_ONLY);
+        }
         boolean removed = playlistSongService.removeFromPlaylist(userEmail, songId);
         return ResponseEntity.ok(Map.of("removed", removed));
     }
@@ -66,4 +121,19 @@ public class PlaylistSongController {
         boolean inPlaylist = playlistSongService.isSongInPlaylist(userEmail, songId);
         return ResponseEntity.ok(Map.of("inPlaylist", inPlaylist));
     }
-} 
\ No newline at end of file
+
+    @GetMapping("/check")
+    public ResponseEntity<?> checkSongs(
+            @RequestHeader("Authorization") String token,
+            @RequestParam List<Long> ids) {
+        String userEmail = jwtManager.validateToken(token);
+        if (userEmail.equals("401")) {
+            return ResponseEntity.status(401).body("Invalid or expired token");
+        }
+        if (ids.size() > MAX_BATCH_IDS) {
+            return ResponseEntity.badRequest().body("At most " + MAX_BATCH_IDS + " song ids per request");
+        }
+        Set<Long> matched = playlistSongService.getPlaylistSongIds(userEmail, ids);
+        return ResponseEntity.ok(Map.of("inPlaylist", matched));
+    }
+}
\ No newline at end of file
@@ -1,12 +1,35 @@
 package project.com.controller;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import project.com.model.ImportJob;
+import project.com.model.QualityTier;
+import project.com.model.RenditionInfo;
 import project.com.model.Song;
+import project.com.model.SongSummary;
+import project.com.model.Suggestion;
+import project.com.service.AudioStreamService;
+import project.com.service.CatalogImportService;
+import project.com.service.RenditionService;
+import project.com.search.SongFacetIndex;
+import project.com.search.SongSuggestService;
 import project.com.service.SongService;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/songs")
@@ -16,9 +39,94 @@ public class SongController {
     @Autowired
     private SongService songService;
 
+    @Autowired
+    private AudioStreamService audioStreamService;
+
+    @Autowired
+    private RenditionService renditionService;
+
+    @Autowired
+    private SongSuggestService suggestService;
+
+    @Autowired
+    private CatalogImportService catalogImportService;
+
+    @Value("${musicapp.bulk.max-rows:10000}")
+    private int maxBulkRows;
+
     @GetMapping
-    public List<Song> getAllSongs() {
-        return songService.getAllSongs();
+    public ResponseEntity<List<Song>> getAllSongs(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String etag = ConditionalRequests.etag("songs", songService.getCatalogVersion());
+        if (ConditionalRequests.notModified(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok().eTag(etag).header(HttpHeaders.CACHE_CONTROL, "no-cache").body(songService.getAllSongs());
+    }
+
+    @GetMapping(params = "size")
+    public ResponseEntity<?> getSongPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam Integer size,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String etag = ConditionalRequests.etag("songs", songService.getCatalogVersion());
+        if (ConditionalRequests.notModified(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        try {
+            return ResponseEntity.ok().eTag(etag).header(HttpHeaders.CACHE_CONTROL, "no-cache")
+                    .body(songService.getCatalogPage(cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public StreamingResponseBody exportSongs() {
+        return songService::exportSongs;
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<?> searchSongs(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) Integer size) {
+        try {
+            return ResponseEntity.ok(songService.searchSongs(query, page, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/suggest")
+    public List<Suggestion> suggestSongs(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "10") int limit) {
+        return suggestService.suggest(query, limit);
+    }
+
+    @GetMapping("/genre/{genre}")
+    public List<SongSummary> getSongsByGenre(
+            @PathVariable String genre,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) Integer size) {
+        return songService.browseSongs(SongFacetIndex.Facet.GENRE, genre, page, size);
+    }
+
+    @GetMapping("/artist/{artist}")
+    public List<SongSummary> getSongsByArtist(
+            @PathVariable String artist,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) Integer size) {
+        return songService.browseSongs(SongFacetIndex.Facet.ARTIST, artist, page, size);
+    }
+
+    @GetMapping("/movie/{movieName}")
+    public List<SongSummary> getSongsByMovie(
+            @PathVariable String movieName,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) Integer size) {
+        return songService.browseSongs(SongFacetIndex.Facet.MOVIE, movieName, page, size);
     }
 
     @GetMapping("/{id}")
@@ -26,13 +134,106 @@ public class SongController {
         return songService.getSongById(id);
     }
 
+    @GetMapping("/{id}/stream")
+    public void streamSong(
+            @PathVariable Long id,
+            @RequestParam(required = false) String quality,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        QualityTier tier;
+        try {
+            tier = QualityTier.fromParam(quality);
+        } catch (IllegalArgumentException e) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            return;
+        }
+        Optional<Path> file = songService.getSongById(id).flatMap(song -> renditionService.resolve(song, tier));
+        if (file.isEmpty()) {
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        audioStreamService.stream(file.get(), request, response);
+    }
+
+    @GetMapping("/{id}/renditions")
+    public ResponseEntity<?> getRenditions(@PathVariable Long id) {
+        Optional<Song> song = songService.getSongById(id);
+        if (song.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        List<RenditionInfo> renditions = renditionService.getRenditions(song.get());
+        if (renditions.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(renditions);
+    }
+
     @PostMapping
     public Song addSong(@RequestBody Song song) {
         return songService.saveSong(song);
     }
 
+    @PostMapping("/bulk")
+    public ResponseEntity<?> addSongs(@RequestBody List<Song> songs) {
+        if (songs.size() > maxBulkRows) {
+            return ResponseEntity.badRequest().body("At most " + maxBulkRows + " songs per request");
+        }
+        long started = System.nanoTime();
+        List<Song> saved = songService.saveSongs(songs);
+        long elapsedNanos = System.nanoTime() - started;
+
+        List<Long> ids = new ArrayList<>(saved.size());
+        for (Song song : saved) {
+            ids.add(song.getId());
+        }
+        double seconds = Math.max(elapsedNanos, 1) / 1_000_000_000.0;
+        return ResponseEntity.ok(Map.of(
+                "inserted", saved.size(),
+                "ids", ids,
+                "elapsedMs", elapsedNanos / 1_000_000,
+                "rowsPerSecond", Math.round(saved.size() / seconds)));
+    }
+
+    // Imports a CSV or NDJSON file from musicapp.import.dir in the background
+    @PostMapping("/import")
+    public ResponseEntity<?> importSongs(@RequestParam String file) throws IOException {
+        Optional<Path> source = catalogImportService.resolveImportFile(file);
+        if (source.isEmpty()) {
+            return ResponseEntity.badRequest().body("No readable import file: " + file);
+        }
+        try {
+            ImportJob job = catalogImportService.startImport(source.get());
+            return ResponseEntity.accepted().body(job);
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Too many imports queued");
+        }
+    }
+
+    @GetMapping("/import/{jobId}")
+    public ResponseEntity<?> getImportJob(@PathVariable String jobId) {
+        Optional<ImportJob> job = catalogImportService.getJob(jobId);
+        if (job.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(job.get());
+    }
+
     @DeleteMapping("/{id}")
     public void deleteSong(@PathVariable Long id) {
+        renditionService.deleteRenditions(id);
         songService.deleteSong(id);
     }
+
+    @GetMapping("/cache-stats")
+    public Map<String, Object> getCacheStats() {
+        return Map.of(
+                "songs", Map.of(
+                        "size", songService.getSongCache().size(),
+                        "hitRatio", songService.getSongCache().getHitRatio(),
+                        "evictions", songService.getSongCache().getEvictionCount()),
+                "pages", Map.of(
+                        "size", songService.getPageCache().size(),
+                        "hitRatio", songService.getPageCache().getHitRatio(),
+                        "evictions", songService.getPageCache().getEvictionCount()));
+    }
 }
@@ -5,6 +5,7 @@ package project.com.controller;
 import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 //import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -41,6 +42,24 @@ public class UsersController {
 	{
 		return UM.getFullname(data.get("csrid"));
 	}
+	
+	@PostMapping("/updatefullname")
+	public String updateFullname(@RequestBody Map<String, String> data)
+	{
+		return UM.updateFullname(data.get("csrid"), data.get("fullname"));
+	}
+	
+	// Name plus like/playlist counts in one call, served from the in-memory caches
+	@PostMapping("/sessioninfo")
+	public ResponseEntity<?> getSessionInfo(@RequestBody Map<String, String> data)
+	{
+		Map<String, Object> info = UM.getSessionInfo(data.get("csrid"));
+		if(info == null)
+		{
+			return ResponseEntity.status(401).body("Invalid or expired token");
+		}
+		return ResponseEntity.ok(info);
+	}
 
 
 }
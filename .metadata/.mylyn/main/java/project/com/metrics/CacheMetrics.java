@@ -0,0 +1,93 @@
+package project.com.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import project.com.cache.LruCache;
+import project.com.cache.TinyLfuCache;
+import project.com.model.JWTManager;
+import project.com.model.UsersManager;
+import project.com.plays.PlayTracker;
+import project.com.service.LibraryWriteBehind;
+import project.com.service.SongService;
+
+/**
+ * Publishes the counters the caches already keep. Values are read at scrape
+ * time, so nothing is added to the get/put path.
+ */
+@Component
+public class CacheMetrics implements MeterBinder {
+
+    private static final String GETS = "musicapp.cache.gets";
+    private static final String SIZE = "musicapp.cache.size";
+
+    @Autowired
+    private SongService songService;
+
+    @Autowired
+    private JWTManager jwtManager;
+
+    @Autowired
+    private UsersManager usersManager;
+
+    @Autowired
+    private LibraryWriteBehind writeBehind;
+
+    @Autowired
+    private PlayTracker playTracker;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bindCache(registry, "songs", songService.getSongCache());
+        bindCache(registry, "pages", songService.getPageCache());
+        bindCache(registry, "profiles", usersManager.getProfileCache());
+
+        FunctionCounter.builder(GETS, jwtManager, JWTManager::getCacheHits)
+                .tag("cache", "jwt").tag("result", "hit").register(registry);
+        FunctionCounter.builder(GETS, jwtManager, JWTManager::getCacheMisses)
+                .tag("cache", "jwt").tag("result", "miss").register(registry);
+        Gauge.builder(SIZE, jwtManager, JWTManager::getCacheSize)
+                .tag("cache", "jwt").register(registry);
+
+        Gauge.builder("musicapp.library.write_behind.pending", writeBehind, LibraryWriteBehind::getPendingCount)
+                .register(registry);
+        FunctionCounter.builder("musicapp.library.write_behind.written", writeBehind, LibraryWriteBehind::getWrittenCount)
+                .register(registry);
+        FunctionCounter.builder("musicapp.library.write_behind.collapsed", writeBehind, LibraryWriteBehind::getCollapsedCount)
+                .register(registry);
+
+        Gauge.builder("musicapp.plays.buffered", playTracker, PlayTracker::getBufferedCount)
+                .register(registry);
+        FunctionCounter.builder("musicapp.plays.events", playTracker, PlayTracker::getAcceptedCount)
+                .tag("result", "accepted").register(registry);
+        FunctionCounter.builder("musicapp.plays.events", playTracker, PlayTracker::getRejectedCount)
+                .tag("result", "rejected").register(registry);
+        FunctionCounter.builder("musicapp.plays.events", playTracker, PlayTracker::getUnknownCount)
+                .tag("result", "unknown_song").register(registry);
+        FunctionCounter.builder("musicapp.plays.flushed", playTracker, PlayTracker::getFlushedCount)
+                .register(registry);
+    }
+
+    private static void bindCache(MeterRegistry registry, String name, TinyLfuCache<?, ?> cache) {
+        FunctionCounter.builder(GETS, cache, TinyLfuCache::getHitCount)
+                .tag("cache", name).tag("result", "hit").register(registry);
+        FunctionCounter.builder(GETS, cache, TinyLfuCache::getMissCount)
+                .tag("cache", name).tag("result", "miss").register(registry);
+        FunctionCounter.builder("musicapp.cache.evictions", cache, TinyLfuCache::getEvictionCount)
+                .tag("cache", name).register(registry);
+        Gauge.builder(SIZE, cache, TinyLfuCache::size)
+                .tag("cache", name).register(registry);
+    }
+
+    private static void bindCache(MeterRegistry registry, String name, LruCache<?, ?> cache) {
+        FunctionCounter.builder(GETS, cache, LruCache::getHitCount)
+                .tag("cache", name).tag("result", "hit").register(registry);
+        FunctionCounter.builder(GETS, cache, LruCache::getMissCount)
+                .tag("cache", name).tag("result", "miss").register(registry);
+        Gauge.builder(SIZE, cache, LruCache::size)
+                .tag("cache", name).register(registry);
+    }
+}
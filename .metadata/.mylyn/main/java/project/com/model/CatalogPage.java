@@ -0,0 +1,24 @@
+package project.com.model;
+
+import java.util.List;
+
+public class CatalogPage {
+
+    private final List<SongSummary> songs;
+    private final String nextCursor;
+
+    public CatalogPage(List<SongSummary> songs, String nextCursor) {
+        this.songs = songs;
+        this.nextCursor = nextCursor;
+    }
+
+    // Getters
+    public List<SongSummary> getSongs() {
+        return songs;
+    }
+
+    // Null once the last page has been returned
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
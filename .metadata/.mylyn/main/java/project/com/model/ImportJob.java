@@ -0,0 +1,148 @@
+package project.com.model;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/** Progress of one catalog import; updated by the import thread, read by status requests. */
+public class ImportJob {
+
+    public enum Status { QUEUED, RUNNING, COMPLETED, FAILED }
+
+    private static final int MAX_ERRORS = 20;
+
+    private final String id;
+    private final String file;
+    private final long totalBytes;
+    private volatile Status status = Status.QUEUED;
+    private volatile long bytesRead;
+    private final AtomicLong records = new AtomicLong();
+    private final AtomicLong imported = new AtomicLong();
+    private final AtomicLong duplicates = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final List<String> errors = new ArrayList<>();
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile String failure;
+
+    public ImportJob(String id, String file, long totalBytes) {
+        this.id = id;
+        this.file = file;
+        this.totalBytes = totalBytes;
+    }
+
+    public void start() {
+        startedAt = Instant.now();
+        status = Status.RUNNING;
+    }
+
+    public void complete() {
+        finishedAt = Instant.now();
+        status = Status.COMPLETED;
+    }
+
+    public void fail(String reason) {
+        failure = reason;
+        finishedAt = Instant.now();
+        status = Status.FAILED;
+    }
+
+    public void setBytesRead(long bytesRead) {
+        this.bytesRead = bytesRead;
+    }
+
+    public void addRecords(long count) {
+        records.addAndGet(count);
+    }
+
+    public void addImported(long count) {
+        imported.addAndGet(count);
+    }
+
+    public void addDuplicate() {
+        duplicates.incrementAndGet();
+    }
+
+    public void reject(long line, String reason) {
+        rejected.incrementAndGet();
+        synchronized (errors) {
+            // Keep the first few so a bad file cannot grow the job without bound
+            if (errors.size() < MAX_ERRORS) {
+                errors.add("line " + line + ": " + reason);
+            }
+        }
+    }
+
+    // Getters
+    public String getId() {
+        return id;
+    }
+
+    public String getFile() {
+        return file;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    public double getPercentComplete() {
+        if (status == Status.COMPLETED) {
+            return 100.0;
+        }
+        return totalBytes == 0 ? 0.0 : Math.min(100.0, bytesRead * 100.0 / totalBytes);
+    }
+
+    public long getRecords() {
+        return records.get();
+    }
+
+    public long getImported() {
+        return imported.get();
+    }
+
+    public long getDuplicates() {
+        return duplicates.get();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    public List<String> getErrors() {
+        synchronized (errors) {
+            return new ArrayList<>(errors);
+        }
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public String getFailure() {
+        return failure;
+    }
+
+    public long getRowsPerSecond() {
+        Instant started = startedAt;
+        if (started == null) {
+            return 0;
+        }
+        Instant end = finishedAt != null ? finishedAt : Instant.now();
+        long millis = Math.max(1, end.toEpochMilli() - started.toEpochMilli());
+        return imported.get() * 1000 / millis;
+    }
+}
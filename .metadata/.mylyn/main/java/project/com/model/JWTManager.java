@@ -3,23 +3,57 @@ package project.com.model;
 
 
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import javax.crypto.SecretKey;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import project.com.cache.LruCache;
 
 @Service
 public class JWTManager {
 	public final String SEC_KEY = "ABCDEFGHIJKLMNOPQRSTUVWXYZ1234567890IJKLMNOPQRSTU";
 	  public final SecretKey key = Keys.hmacShaKeyFor(SEC_KEY.getBytes());
 	  
+	  // Parsers are immutable and thread-safe once built
+	  private final JwtParser parser = Jwts.parserBuilder()
+			  							   .setSigningKey(key)
+			  							   .build();
+	  
+	  // token digest -> verified email, each entry expiring with its token
+	  private final LruCache<String, String> verifiedTokens;
+	  
+	  // Recorded by hand: this runs on every authenticated request, too hot for an aspect
+	  private final Timer validateTimer;
+	  private final Counter rejectedTokens;
+	  
+	  public JWTManager(@Value("${musicapp.jwt.cache-size:10000}") int cacheSize, MeterRegistry registry) {
+		  this.verifiedTokens = new LruCache<>(cacheSize, 0);
+		  this.validateTimer = Timer.builder("musicapp.jwt.validate")
+				  					.description("Token validation, cached or parsed")
+				  					.register(registry);
+		  this.rejectedTokens = Counter.builder("musicapp.auth.rejected")
+				  					   .tag("reason", "token")
+				  					   .register(registry);
+	  }
+	  
 	  public String generateToken(String email)
 	  {
 	    Map<String, String> data = new HashMap<String, String>();
@@ -33,15 +67,59 @@ public class JWTManager {
 	  }
 	  
 	  public String validateToken(String token) {
-		  Claims claims =Jwts.parserBuilder()
-				  			 .setSigningKey(key)
-				  			 .build()
-				  			 .parseClaimsJws(token)
-				  			 .getBody();
+		  long started = System.nanoTime();
+		  String email = verify(token);
+		  validateTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+		  if("401".equals(email)) {
+			  rejectedTokens.increment();
+		  }
+		  return email;
+	  }
+	  
+	  private String verify(String token) {
+		  String digest = digest(token);
+		  String email = verifiedTokens.get(digest);
+		  if(email != null) {
+			  return email;
+		  }
+		  
+		  Claims claims;
+		  try {
+			  claims = parser.parseClaimsJws(token).getBody();
+		  } catch (JwtException | IllegalArgumentException e) {
+			  // Expired, tampered or malformed tokens are rejected like any other invalid one
+			  return "401";
+		  }
 		  Date expiry = claims.getExpiration();
 		  if(expiry == null || expiry.before(new Date())) {
 			  return "401";
 		  }
-		  return claims.get("email",String.class);
+		  email = claims.get("email",String.class);
+		  if(email != null) {
+			  verifiedTokens.put(digest, email, expiry.getTime());
+		  }
+		  return email;
+	  }
+	  
+	  public long getCacheHits() {
+		  return verifiedTokens.getHitCount();
+	  }
+	  
+	  public long getCacheMisses() {
+		  return verifiedTokens.getMissCount();
+	  }
+	  
+	  public int getCacheSize() {
+		  return verifiedTokens.size();
+	  }
+	  
+	  private static String digest(String token) {
+		  try {
+			  byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+			  return Base64.getEncoder().encodeToString(hash);
+		  } catch (NoSuchAlgorithmException e) {
+			  // Every JRE is required to ship SHA-256
+			  throw new IllegalStateException(e);
+		  }
 	  }
 }
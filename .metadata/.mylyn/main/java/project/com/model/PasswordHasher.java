@@ -0,0 +1,204 @@
+package project.com.model;
+
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Salted PBKDF2-HMAC-SHA256 password hashes, stored as
+ * pbkdf2$iterations$salt$hash so the cost can be raised without invalidating
+ * existing hashes. Hashing runs on a small bounded pool: a burst of logins
+ * queues there, or is turned away, instead of pinning every request thread
+ * on key derivation. A login whose estimated wait already exceeds the timeout
+ * is turned away before it is queued, since PBKDF2 cannot be interrupted and
+ * an abandoned hash would still burn a verifier thread.
+ */
+@Service
+public class PasswordHasher {
+
+	private static final Logger log = LoggerFactory.getLogger(PasswordHasher.class);
+
+	private static final String PREFIX = "pbkdf2";
+	private static final int SALT_BYTES = 16;
+	private static final int HASH_BITS = 256;
+
+	private final SecureRandom random = new SecureRandom();
+	private final ThreadPoolExecutor verifiers;
+
+	// Moving average of one derivation, as measured on the verifier threads
+	private final AtomicLong hashNanos = new AtomicLong();
+
+	@Value("${musicapp.password.iterations:210000}")
+	private int iterations;
+
+	@Value("${musicapp.password.target-ms:250}")
+	private long targetMillis;
+
+	@Value("${musicapp.password.timeout-ms:2000}")
+	private long timeoutMillis;
+
+	// Stands in for a stored hash when the email is unknown, so both cases cost the same
+	private String decoyHash;
+
+	public PasswordHasher(@Value("${musicapp.password.verifier-threads:0}") int threads,
+			@Value("${musicapp.password.verifier-queue:64}") int queueSize) {
+		int workers = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+		AtomicInteger threadIds = new AtomicInteger();
+		this.verifiers = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(queueSize), r -> {
+					Thread thread = new Thread(r, "password-" + threadIds.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				});
+	}
+
+	@PostConstruct
+	void calibrate() {
+		decoyHash = encode("decoy-password");
+		// Warm up, then time a few derivations at the configured cost
+		long best = Long.MAX_VALUE;
+		for (int i = 0; i < 3; i++) {
+			long started = System.nanoTime();
+			encode("calibration");
+			best = Math.min(best, System.nanoTime() - started);
+		}
+		hashNanos.set(best);
+		long millis = TimeUnit.NANOSECONDS.toMillis(best);
+		// A login waits behind up to one queue's worth of hashes per worker
+		long queuedMillis = millis * (1 + verifiers.getQueue().remainingCapacity() / verifiers.getCorePoolSize());
+		log.info("PBKDF2 at {} iterations takes {} ms per hash; worst queued login about {} ms on {} verifier threads",
+				iterations, millis, queuedMillis, verifiers.getCorePoolSize());
+		if (millis > targetMillis) {
+			log.warn("Password hashing ({} ms) exceeds musicapp.password.target-ms={}; lower the iterations",
+					millis, targetMillis);
+		}
+	}
+
+	/** Hashes on the verifier pool; throws RejectedExecutionException when saturated. */
+	public String hash(String password) {
+		admit();
+		return await(verifiers.submit(() -> timed(() -> encode(password))));
+	}
+
+	/**
+	 * Checks the password against a stored hash on the verifier pool; a null
+	 * stored hash is checked against a decoy so unknown emails take as long.
+	 */
+	public boolean verify(String password, String stored) {
+		String target = stored != null ? stored : decoyHash;
+		admit();
+		boolean matches = await(verifiers.submit(() -> timed(() -> matches(password, target))));
+		return stored != null && matches;
+	}
+
+	public boolean isHashed(String stored) {
+		return stored != null && stored.startsWith(PREFIX + "$");
+	}
+
+	public boolean needsRehash(String stored) {
+		if (!isHashed(stored)) {
+			return true;
+		}
+		String[] parts = stored.split("\\$");
+		return parts.length != 4 || Integer.parseInt(parts[1]) != iterations;
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		verifiers.shutdownNow();
+	}
+
+	/**
+	 * Turns the request away while it is cheap to: when the hashes queued ahead
+	 * of it, spread over the workers, would already take longer than the timeout.
+	 */
+	private void admit() {
+		int workers = verifiers.getCorePoolSize();
+		// Rounds of queued hashes ahead of this one, the round in progress if every worker is busy, and its own
+		long rounds = verifiers.getQueue().size() / workers
+				+ (verifiers.getActiveCount() >= workers ? 1 : 0) + 1;
+		long estimatedMillis = TimeUnit.NANOSECONDS.toMillis(rounds * hashNanos.get());
+		if (estimatedMillis > timeoutMillis) {
+			throw new RejectedExecutionException("Password verifiers saturated; estimated wait " + estimatedMillis + " ms");
+		}
+	}
+
+	private <T> T timed(Callable<T> work) throws Exception {
+		long started = System.nanoTime();
+		try {
+			return work.call();
+		} finally {
+			long took = System.nanoTime() - started;
+			// 1/8 weight per sample follows load-dependent slowdowns without jumping on one outlier
+			hashNanos.accumulateAndGet(took, (average, sample) -> average + (sample - average) / 8);
+		}
+	}
+
+	private <T> T await(Future<T> result) {
+		try {
+			return result.get(timeoutMillis, TimeUnit.MILLISECONDS);
+		} catch (TimeoutException e) {
+			// Only stops a hash that has not started; a running derivation ignores interrupts
+			result.cancel(true);
+			throw new RejectedExecutionException("Password verification timed out", e);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RejectedExecutionException("Interrupted while verifying password", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	private String encode(String password) {
+		byte[] salt = new byte[SALT_BYTES];
+		random.nextBytes(salt);
+		byte[] hash = derive(password, salt, iterations);
+		Base64.Encoder encoder = Base64.getEncoder().withoutPadding();
+		return PREFIX + "$" + iterations + "$" + encoder.encodeToString(salt) + "$" + encoder.encodeToString(hash);
+	}
+
+	private boolean matches(String password, String stored) {
+		String[] parts = stored.split("\\$");
+		if (parts.length != 4 || !parts[0].equals(PREFIX)) {
+			return false;
+		}
+		Base64.Decoder decoder = Base64.getDecoder();
+		byte[] salt = decoder.decode(parts[2]);
+		byte[] expected = decoder.decode(parts[3]);
+		byte[] actual = derive(password, salt, Integer.parseInt(parts[1]));
+		return MessageDigest.isEqual(expected, actual);
+	}
+
+	private static byte[] derive(String password, byte[] salt, int rounds) {
+		PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, rounds, HASH_BITS);
+		try {
+			return SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256").generateSecret(spec).getEncoded();
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException("PBKDF2WithHmacSHA256 is not available", e);
+		} finally {
+			spec.clearPassword();
+		}
+	}
+}
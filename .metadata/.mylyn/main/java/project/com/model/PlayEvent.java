@@ -0,0 +1,28 @@
+package project.com.model;
+
+// Request body for /api/plays; the user comes from the token. Sent once per play,
+// when it ends (finished, skipped or stopped), not as progress updates
+public class PlayEvent {
+
+    private Long songId;
+
+    // How far into the song the listener got before the play ended
+    private int positionSeconds;
+
+    // Getters and Setters
+    public Long getSongId() {
+        return songId;
+    }
+
+    public void setSongId(Long songId) {
+        this.songId = songId;
+    }
+
+    public int getPositionSeconds() {
+        return positionSeconds;
+    }
+
+    public void setPositionSeconds(int positionSeconds) {
+        this.positionSeconds = positionSeconds;
+    }
+}
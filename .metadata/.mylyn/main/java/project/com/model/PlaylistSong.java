@@ -5,9 +5,13 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "playlist_songs")
+@Table(name = "playlist_songs",
+       uniqueConstraints = @UniqueConstraint(name = "uk_playlist_songs_user_song", columnNames = {"user_email", "song_id"}))
 public class PlaylistSong {
     
     @Id
@@ -21,6 +25,26 @@ public class PlaylistSong {
     private String movieName;
     private String imageUrl;
     private String audioSrc;
+    private LocalDateTime createdAt;
+
+    // Constructors
+    public PlaylistSong() {
+        this.createdAt = LocalDateTime.now();
+    }
+
+    // Used by the normalized library query, which joins song details from Song
+    public PlaylistSong(Long id, String userEmail, Long songId, String songTitle, String artist,
+            String movieName, String imageUrl, String audioSrc, LocalDateTime createdAt) {
+        this.id = id;
+        this.userEmail = userEmail;
+        this.songId = songId;
+        this.songTitle = songTitle;
+        this.artist = artist;
+        this.movieName = movieName;
+        this.imageUrl = imageUrl;
+        this.audioSrc = audioSrc;
+        this.createdAt = createdAt;
+    }
 
     // Getters and Setters
     public Long getId() {
@@ -86,4 +110,21 @@ public class PlaylistSong {
     public void setAudioSrc(String audioSrc) {
         this.audioSrc = audioSrc;
     }
-} 
\ No newline at end of file
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    // Normalized rows keep only user, song and timestamp
+    public void clearSongDetails() {
+        this.songTitle = null;
+        this.artist = null;
+        this.movieName = null;
+        this.imageUrl = null;
+        this.audioSrc = null;
+    }
+}
\ No newline at end of file
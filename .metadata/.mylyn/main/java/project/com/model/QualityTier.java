@@ -0,0 +1,30 @@
+package project.com.model;
+
+public enum QualityTier {
+
+    // Bitrate 0 means the original upload is served as-is
+    HIGH(0),
+    MEDIUM(192),
+    LOW(96);
+
+    private final int bitrateKbps;
+
+    QualityTier(int bitrateKbps) {
+        this.bitrateKbps = bitrateKbps;
+    }
+
+    public int getBitrateKbps() {
+        return bitrateKbps;
+    }
+
+    public boolean isOriginal() {
+        return bitrateKbps == 0;
+    }
+
+    public static QualityTier fromParam(String value) {
+        if (value == null || value.isEmpty()) {
+            return HIGH;
+        }
+        return QualityTier.valueOf(value.trim().toUpperCase());
+    }
+}
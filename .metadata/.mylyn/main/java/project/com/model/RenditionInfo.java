@@ -0,0 +1,34 @@
+package project.com.model;
+
+public class RenditionInfo {
+
+    private final QualityTier tier;
+    private final int bitrateKbps;
+    private final Long sizeBytes;
+    private final boolean ready;
+
+    public RenditionInfo(QualityTier tier, int bitrateKbps, Long sizeBytes, boolean ready) {
+        this.tier = tier;
+        this.bitrateKbps = bitrateKbps;
+        this.sizeBytes = sizeBytes;
+        this.ready = ready;
+    }
+
+    // Getters
+    public QualityTier getTier() {
+        return tier;
+    }
+
+    public int getBitrateKbps() {
+        return bitrateKbps;
+    }
+
+    // Null until the rendition has been produced
+    public Long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+}
@@ -0,0 +1,35 @@
+package project.com.model;
+
+import java.util.List;
+
+public class SearchResult {
+
+    private final int total;
+    private final int page;
+    private final int size;
+    private final List<SongSummary> songs;
+
+    public SearchResult(int total, int page, int size, List<SongSummary> songs) {
+        this.total = total;
+        this.page = page;
+        this.size = size;
+        this.songs = songs;
+    }
+
+    // Getters
+    public int getTotal() {
+        return total;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public List<SongSummary> getSongs() {
+        return songs;
+    }
+}
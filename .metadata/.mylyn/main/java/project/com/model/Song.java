@@ -4,8 +4,15 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_song_genre", columnList = "genre"),
+        @Index(name = "idx_song_artist", columnList = "artist"),
+        @Index(name = "idx_song_movie_name", columnList = "movie_name")
+})
 public class Song {
     
     @Id
@@ -15,6 +22,8 @@ public class Song {
     private String artist;
     private String audioSrc;
     private String image;
+    private String genre;
+    private String movieName;
     private boolean liked;  // For liked songs
 
     // Getters and Setters
@@ -58,6 +67,22 @@ public class Song {
         this.image = image;
     }
 
+    public String getGenre() {
+        return genre;
+    }
+
+    public void setGenre(String genre) {
+        this.genre = genre;
+    }
+
+    public String getMovieName() {
+        return movieName;
+    }
+
+    public void setMovieName(String movieName) {
+        this.movieName = movieName;
+    }
+
     public boolean isLiked() {
         return liked;
     }
@@ -65,4 +90,18 @@ public class Song {
     public void setLiked(boolean liked) {
         this.liked = liked;
     }
+
+    // Detached copy, so a cached song is never shared with (or changed by) callers
+    public Song copy() {
+        Song copy = new Song();
+        copy.id = id;
+        copy.title = title;
+        copy.artist = artist;
+        copy.audioSrc = audioSrc;
+        copy.image = image;
+        copy.genre = genre;
+        copy.movieName = movieName;
+        copy.liked = liked;
+        return copy;
+    }
 }
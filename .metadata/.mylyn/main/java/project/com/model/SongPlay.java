@@ -0,0 +1,61 @@
+package project.com.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import java.time.LocalDateTime;
+
+// Aggregated play counts, upserted in batches by PlayTracker
+@Entity
+@Table(name = "song_plays")
+public class SongPlay {
+
+    @Id
+    @Column(name = "song_id")
+    private Long songId;
+
+    @Column(name = "play_count", nullable = false)
+    private long playCount;
+
+    // Sum of each finished play's final position
+    @Column(name = "seconds_played", nullable = false)
+    private long secondsPlayed;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    // Getters and Setters
+    public Long getSongId() {
+        return songId;
+    }
+
+    public void setSongId(Long songId) {
+        this.songId = songId;
+    }
+
+    public long getPlayCount() {
+        return playCount;
+    }
+
+    public void setPlayCount(long playCount) {
+        this.playCount = playCount;
+    }
+
+    public long getSecondsPlayed() {
+        return secondsPlayed;
+    }
+
+    public void setSecondsPlayed(long secondsPlayed) {
+        this.secondsPlayed = secondsPlayed;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
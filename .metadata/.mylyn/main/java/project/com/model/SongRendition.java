@@ -0,0 +1,97 @@
+package project.com.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "song_renditions",
+       uniqueConstraints = @UniqueConstraint(name = "uk_song_renditions_song_tier", columnNames = {"song_id", "tier"}))
+public class SongRendition {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private Long songId;
+
+    @Enumerated(EnumType.STRING)
+    private QualityTier tier;
+
+    private int bitrateKbps;
+    private long sizeBytes;
+
+    // Relative to the media directory
+    private String path;
+
+    private LocalDateTime createdAt;
+
+    // Constructors
+    public SongRendition() {
+        this.createdAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getSongId() {
+        return songId;
+    }
+
+    public void setSongId(Long songId) {
+        this.songId = songId;
+    }
+
+    public QualityTier getTier() {
+        return tier;
+    }
+
+    public void setTier(QualityTier tier) {
+        this.tier = tier;
+    }
+
+    public int getBitrateKbps() {
+        return bitrateKbps;
+    }
+
+    public void setBitrateKbps(int bitrateKbps) {
+        this.bitrateKbps = bitrateKbps;
+    }
+
+    public long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    public void setSizeBytes(long sizeBytes) {
+        this.sizeBytes = sizeBytes;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
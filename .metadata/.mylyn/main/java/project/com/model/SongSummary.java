@@ -0,0 +1,57 @@
+package project.com.model;
+
+public class SongSummary {
+
+    private final Long id;
+    private final String title;
+    private final String artist;
+    private final String audioSrc;
+    private final String image;
+    private final String genre;
+    private final String movieName;
+
+    public SongSummary(Long id, String title, String artist, String audioSrc, String image,
+            String genre, String movieName) {
+        this.id = id;
+        this.title = title;
+        this.artist = artist;
+        this.audioSrc = audioSrc;
+        this.image = image;
+        this.genre = genre;
+        this.movieName = movieName;
+    }
+
+    public static SongSummary of(Song song) {
+        return new SongSummary(song.getId(), song.getTitle(), song.getArtist(), song.getAudioSrc(), song.getImage(),
+                song.getGenre(), song.getMovieName());
+    }
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getArtist() {
+        return artist;
+    }
+
+    public String getAudioSrc() {
+        return audioSrc;
+    }
+
+    public String getImage() {
+        return image;
+    }
+
+    public String getGenre() {
+        return genre;
+    }
+
+    public String getMovieName() {
+        return movieName;
+    }
+}
@@ -0,0 +1,35 @@
+package project.com.model;
+
+public class Suggestion {
+
+    private final String text;
+    private final String type;
+    private final Long songId;
+    private final long weight;
+
+    public Suggestion(String text, String type, Long songId, long weight) {
+        this.text = text;
+        this.type = type;
+        this.songId = songId;
+        this.weight = weight;
+    }
+
+    // Getters
+    public String getText() {
+        return text;
+    }
+
+    // "song" or "artist"
+    public String getType() {
+        return type;
+    }
+
+    // Null for artist suggestions
+    public Long getSongId() {
+        return songId;
+    }
+
+    public long getWeight() {
+        return weight;
+    }
+}
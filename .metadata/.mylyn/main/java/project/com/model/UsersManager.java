@@ -2,12 +2,28 @@ package project.com.model;
 
 
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
+import project.com.cache.LruCache;
+import project.com.repository.DuplicateKeys;
 import project.com.repository.MusicRepo;
+import project.com.service.LikedSongService;
+import project.com.service.PlaylistSongService;
 
 @Service
+@Timed("musicapp.service")
 public class UsersManager {
 	
 	@Autowired
@@ -16,24 +32,92 @@ public class UsersManager {
 	@Autowired
 	JWTManager JM;
 	
+	@Autowired
+	PasswordHasher PH;
+	
+	@Autowired
+	LikedSongService LS;
+	
+	@Autowired
+	PlaylistSongService PS;
+	
+	@Autowired
+	MeterRegistry registry;
+	
+	// email -> full name; names only change through updateFullname, the TTL covers edits made elsewhere
+	private final LruCache<String, String> fullnames;
+	
+	public UsersManager(@Value("${musicapp.users.profile-cache-size:10000}") int cacheSize,
+			@Value("${musicapp.users.profile-ttl-seconds:600}") long ttlSeconds)
+	{
+		this.fullnames = new LruCache<>(cacheSize, ttlSeconds * 1000);
+	}
+	
 	public String addUser(Users U)
 	{
-		if(jr.vaildateEmail(U.getEmail()) > 0)
+		if(U.getEmail() == null || U.getPassword() == null)
+		{
+			return "401::Email and password are required.";
+		}
+		try
+		{
+			jr.insertUser(U.getEmail(), U.getFullname(), PH.hash(U.getPassword()));
+		}
+		catch(DataIntegrityViolationException e)
 		{
+			if(!DuplicateKeys.isDuplicateKey(e))
+			{
+				// Not the email key (e.g. a fullname too long for its column)
+				throw e;
+			}
 			return "401::User Email already exists.";
 		}
-		
-		jr.save(U);
+		catch(RejectedExecutionException e)
+		{
+			return "503::Server busy, please try again.";
+		}
+		fullnames.put(U.getEmail(), U.getFullname() == null ? "" : U.getFullname());
 		return "200::User Added Successfully";
 	}
 	
 	public String login(String email, String password)
 	{
-		if(jr.validateCredentials(email, password) > 0)
+		if(email == null || password == null)
+		{
+			return "401::Invaild Credentials";
+		}
+		Optional<Users> found = jr.findById(email);
+		String stored = found.map(Users::getPassword).orElse(null);
+		boolean valid;
+		try
+		{
+			if(stored != null && !PH.isHashed(stored))
+			{
+				// Account from before hashing: compare once, then store a hash in its place
+				valid = MessageDigest.isEqual(stored.getBytes(StandardCharsets.UTF_8),
+						password.getBytes(StandardCharsets.UTF_8));
+			}
+			else
+			{
+				valid = PH.verify(password, stored);
+			}
+			if(valid && PH.needsRehash(stored))
+			{
+				Users U = found.get();
+				U.setPassword(PH.hash(password));
+				jr.save(U);
+			}
+		}
+		catch(RejectedExecutionException e)
+		{
+			return "503::Server busy, please try again.";
+		}
+		if(valid)
 		{
 			String token = JM.generateToken(email);
 			return "200::" + token;
 		}
+		registry.counter("musicapp.auth.rejected", "reason", "credentials").increment();
 		return "401::Invaild Credentials";
 	}
 	
@@ -45,8 +129,71 @@ public class UsersManager {
 	    	return "401::Token Expired";
 	      
 	    }
-	    Users U=jr.findById(email).get();
-	    return U.getFullname();
+	    String fullname = cachedFullname(email);
+	    if(fullname == null)
+	    {
+	    	return "401::User not found";
+	    }
+	    return fullname;
+	}
+	
+	public String updateFullname(String token, String fullname)
+	{
+		String email=JM.validateToken(token);
+	    if(email.compareTo("401")==0)
+	    {
+	    	return "401::Token Expired";
+	    }
+	    if(jr.updateFullname(email, fullname) == 0)
+	    {
+	    	return "401::User not found";
+	    }
+	    fullnames.invalidate(email);
+	    return "200::Name Updated Successfully";
+	}
+	
+	/** Name and library counts for the page header; null when the token is not valid. */
+	public Map<String, Object> getSessionInfo(String token)
+	{
+		String email=JM.validateToken(token);
+	    if(email.compareTo("401")==0)
+	    {
+	    	return null;
+	    }
+	    String fullname = cachedFullname(email);
+	    if(fullname == null)
+	    {
+	    	return null;
+	    }
+	    Map<String, Object> info = new LinkedHashMap<>();
+	    info.put("email", email);
+	    info.put("fullname", fullname);
+	    info.put("likedCount", LS.getLikedCount(email));
+	    info.put("playlistCount", PS.getPlaylistCount(email));
+	    return info;
+	}
+	
+	public LruCache<String, String> getProfileCache()
+	{
+		return fullnames;
+	}
+	
+	private String cachedFullname(String email)
+	{
+		String fullname = fullnames.get(email);
+		if(fullname != null)
+		{
+			return fullname;
+		}
+		Optional<Users> U = jr.findById(email);
+		if(U.isEmpty())
+		{
+			return null;
+		}
+		// Stored as "" when unset, since the cache treats null as a miss
+		fullname = U.get().getFullname() == null ? "" : U.get().getFullname();
+		fullnames.put(email, fullname);
+		return fullname;
 	}
 	
 	
@@ -0,0 +1,85 @@
+package project.com.plays;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded multi-producer, single-consumer ring of play events. Producers
+ * claim a slot with one CAS and publish it with a release store of the slot
+ * sequence; nothing blocks, and a full ring rejects the event instead.
+ * Only one thread may call drain at a time.
+ */
+class PlayEventRing {
+
+    interface Sink {
+        void accept(long songId, int seconds);
+    }
+
+    private final int capacity;
+    private final int mask;
+    // Slot i is free for the producer at position p when sequence == p, and
+    // holds a published event for the consumer when sequence == p + 1
+    private final AtomicLongArray sequences;
+    private final long[] songIds;
+    private final int[] seconds;
+
+    private final AtomicLong tail = new AtomicLong();
+    private long head;
+
+    PlayEventRing(int requestedCapacity) {
+        this.capacity = Integer.highestOneBit(Math.max(2, requestedCapacity - 1)) << 1;
+        this.mask = capacity - 1;
+        this.sequences = new AtomicLongArray(capacity);
+        this.songIds = new long[capacity];
+        this.seconds = new int[capacity];
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    boolean offer(long songId, int positionSeconds) {
+        long position = tail.get();
+        for (;;) {
+            int slot = (int) (position & mask);
+            long difference = sequences.get(slot) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    songIds[slot] = songId;
+                    seconds[slot] = positionSeconds;
+                    sequences.lazySet(slot, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                // Consumer has not freed this slot from the previous lap: full
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    int drain(Sink sink, int limit) {
+        int drained = 0;
+        while (drained < limit) {
+            int slot = (int) (head & mask);
+            if (sequences.get(slot) != head + 1) {
+                break;
+            }
+            sink.accept(songIds[slot], seconds[slot]);
+            sequences.lazySet(slot, head + capacity);
+            head++;
+            drained++;
+        }
+        return drained;
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    /** Approximate; producers may be mid-claim. */
+    int size() {
+        return (int) Math.max(0, Math.min(capacity, tail.get() - head));
+    }
+}
@@ -0,0 +1,247 @@
+package project.com.plays;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import project.com.model.SongPlay;
+import project.com.repository.BulkInsertRepository;
+import project.com.repository.SongPlayRepository;
+import project.com.search.SongSearchIndex;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Play counting. Requests only publish into the ring; a single drain pass
+ * folds events into per-song counters, and a slower flush upserts the
+ * deltas since the last successful flush into song_plays.
+ *
+ * Each event is one finished play (see PlayEvent), so a play adds one to the
+ * count and its final position to the seconds played.
+ *
+ * Draining runs on its own thread every drain-ms. On the shared scheduler it
+ * would queue behind the database flushes, write-behind batches and suggest
+ * rebuilds, and the ring would fill while they ran.
+ */
+@Service
+public class PlayTracker {
+
+    private static final Logger log = LoggerFactory.getLogger(PlayTracker.class);
+    private static final int DRAIN_LIMIT = 16384;
+
+    @Autowired
+    private SongSearchIndex searchIndex;
+
+    @Autowired
+    private SongPlayRepository songPlayRepository;
+
+    @Autowired
+    private BulkInsertRepository bulkInsertRepository;
+
+    private final PlayEventRing ring;
+    private final Map<Long, Counter> counters = new ConcurrentHashMap<>();
+
+    private final ReentrantLock drainLock = new ReentrantLock();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder unknown = new LongAdder();
+    private final LongAdder flushedRows = new LongAdder();
+
+    private final long drainMillis;
+    private final ScheduledExecutorService drainer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "play-drain");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public PlayTracker(@Value("${musicapp.plays.buffer-size:65536}") int bufferSize,
+                       @Value("${musicapp.plays.drain-ms:20}") long drainMillis) {
+        this.ring = new PlayEventRing(bufferSize);
+        this.drainMillis = drainMillis;
+    }
+
+    /** Queues one play; false when the buffer is full and the event was not taken. */
+    public boolean record(long songId, int positionSeconds) {
+        if (ring.offer(songId, Math.max(0, positionSeconds))) {
+            accepted.increment();
+            return true;
+        }
+        rejected.increment();
+        return false;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        for (SongPlay play : songPlayRepository.findAll()) {
+            counter(play.getSongId()).persisted = play.getPlayCount();
+        }
+        log.info("Loaded play counts for {} songs, buffer holds {} events", counters.size(), ring.capacity());
+        // Started once the search index is built, since draining checks ids against it
+        drainer.scheduleWithFixedDelay(this::scheduledDrain, drainMillis, drainMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void scheduledDrain() {
+        try {
+            drain();
+        } catch (RuntimeException e) {
+            // A thrown exception would cancel every later run
+            log.warn("Play event drain failed", e);
+        }
+    }
+
+    public void drain() {
+        // One consumer at a time; a concurrent caller just lets the running pass finish
+        if (!drainLock.tryLock()) {
+            return;
+        }
+        try {
+            while (ring.drain(this::count, DRAIN_LIMIT) == DRAIN_LIMIT) {
+                // Keep going while producers outpace a single pass
+            }
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${musicapp.plays.flush-ms:5000}")
+    public void flush() {
+        drain();
+        flushLock.lock();
+        try {
+            List<BulkInsertRepository.PlayDelta> deltas = new ArrayList<>();
+            List<Counter> flushed = new ArrayList<>();
+            for (Map.Entry<Long, Counter> entry : counters.entrySet()) {
+                Counter counter = entry.getValue();
+                long plays = counter.plays.sum();
+                long seconds = counter.seconds.sum();
+                if (plays == counter.flushedPlays && seconds == counter.flushedSeconds) {
+                    continue;
+                }
+                deltas.add(new BulkInsertRepository.PlayDelta(entry.getKey(),
+                        plays - counter.flushedPlays, seconds - counter.flushedSeconds));
+                counter.pendingPlays = plays;
+                counter.pendingSeconds = seconds;
+                flushed.add(counter);
+            }
+            if (deltas.isEmpty()) {
+                return;
+            }
+            try {
+                bulkInsertRepository.upsertPlayCounts(deltas);
+            } catch (RuntimeException e) {
+                // Baselines stay put, so the same deltas (plus newer plays) go out next time
+                log.warn("Play count flush of {} songs failed, will retry", deltas.size(), e);
+                return;
+            }
+            for (Counter counter : flushed) {
+                counter.flushedPlays = counter.pendingPlays;
+                counter.flushedSeconds = counter.pendingSeconds;
+            }
+            flushedRows.add(deltas.size());
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        drainer.shutdown();
+        drainer.awaitTermination(1, TimeUnit.SECONDS);
+        flush();
+    }
+
+    /** Stored plus in-memory plays for every song that has any. */
+    public Map<Long, Long> playCounts() {
+        Map<Long, Long> totals = new HashMap<>(counters.size() * 2);
+        for (Map.Entry<Long, Counter> entry : counters.entrySet()) {
+            totals.put(entry.getKey(), entry.getValue().total());
+        }
+        return totals;
+    }
+
+    public long getPlayCount(long songId) {
+        Counter counter = counters.get(songId);
+        return counter == null ? 0 : counter.total();
+    }
+
+    public List<Map<String, Object>> topSongs(int limit) {
+        List<Map.Entry<Long, Long>> ranked = new ArrayList<>(playCounts().entrySet());
+        ranked.sort(Map.Entry.<Long, Long>comparingByValue().reversed());
+        List<Map<String, Object>> top = new ArrayList<>(Math.min(limit, ranked.size()));
+        for (Map.Entry<Long, Long> entry : ranked.subList(0, Math.min(limit, ranked.size()))) {
+            Map<String, Object> row = new HashMap<>();
+            row.put("songId", entry.getKey());
+            row.put("plays", entry.getValue());
+            row.put("song", searchIndex.getDocument(entry.getKey()));
+            top.add(row);
+        }
+        return top;
+    }
+
+    public long getAcceptedCount() {
+        return accepted.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    public long getUnknownCount() {
+        return unknown.sum();
+    }
+
+    public long getFlushedCount() {
+        return flushedRows.sum();
+    }
+
+    public int getBufferedCount() {
+        return ring.size();
+    }
+
+    private void count(long songId, int seconds) {
+        // Ids are checked here rather than on the request path
+        if (searchIndex.getDocument(songId) == null) {
+            unknown.increment();
+            return;
+        }
+        Counter counter = counter(songId);
+        counter.plays.increment();
+        counter.seconds.add(seconds);
+    }
+
+    private Counter counter(long songId) {
+        return counters.computeIfAbsent(songId, id -> new Counter());
+    }
+
+    private static final class Counter {
+        // Written by the drain pass, summed concurrently by flush and readers
+        final LongAdder plays = new LongAdder();
+        final LongAdder seconds = new LongAdder();
+        volatile long persisted;
+        // Guarded by flushLock
+        long flushedPlays;
+        long flushedSeconds;
+        long pendingPlays;
+        long pendingSeconds;
+
+        long total() {
+            return persisted + plays.sum();
+        }
+    }
+}
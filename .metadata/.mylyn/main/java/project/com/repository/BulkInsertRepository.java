@@ -0,0 +1,176 @@
+package project.com.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import project.com.model.PlaylistSong;
+import project.com.model.Song;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Multi-row inserts through plain JDBC batches. IDENTITY ids stop Hibernate
+ * from batching inserts, so bulk loads bypass the entity manager here and
+ * read the generated keys back from the driver instead.
+ */
+@Repository
+public class BulkInsertRepository {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${musicapp.bulk.batch-size:500}")
+    private int batchSize;
+
+    /** Inserts the songs and sets their generated ids, in input order. */
+    @Transactional
+    public void insertSongs(List<Song> songs) {
+        jdbcTemplate.execute((Connection connection) -> {
+            try (PreparedStatement ps = connection.prepareStatement(
+                    "INSERT INTO song (title, artist, audio_src, image, genre, movie_name, liked)"
+                            + " VALUES (?, ?, ?, ?, ?, ?, ?)",
+                    Statement.RETURN_GENERATED_KEYS)) {
+                int from = 0;
+                for (int i = 0; i < songs.size(); i++) {
+                    Song song = songs.get(i);
+                    setNullable(ps, 1, song.getTitle());
+                    setNullable(ps, 2, song.getArtist());
+                    setNullable(ps, 3, song.getAudioSrc());
+                    setNullable(ps, 4, song.getImage());
+                    setNullable(ps, 5, song.getGenre());
+                    setNullable(ps, 6, song.getMovieName());
+                    ps.setBoolean(7, song.isLiked());
+                    ps.addBatch();
+                    if (i - from + 1 == batchSize || i == songs.size() - 1) {
+                        ps.executeBatch();
+                        try (ResultSet keys = ps.getGeneratedKeys()) {
+                            int next = from;
+                            while (keys.next() && next <= i) {
+                                songs.get(next++).setId(keys.getLong(1));
+                            }
+                        }
+                        from = i + 1;
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Inserts the rows for one user, skipping songs already in the playlist.
+     * Returns the number of rows actually added.
+     */
+    @Transactional
+    public int insertPlaylistSongs(String userEmail, List<PlaylistSong> songs) {
+        Integer added = jdbcTemplate.execute((Connection connection) -> {
+            // Read first so the transaction's snapshot predates the inserts
+            long before = countPlaylistRows(connection, userEmail);
+            int inserted = 0;
+            boolean exact = true;
+            try (PreparedStatement ps = connection.prepareStatement(
+                    "INSERT IGNORE INTO playlist_songs"
+                            + " (user_email, song_id, song_title, artist, movie_name, image_url, audio_src, created_at)"
+                            + " VALUES (?, ?, ?, ?, ?, ?, ?, ?)")) {
+                Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+                int queued = 0;
+                for (PlaylistSong song : songs) {
+                    ps.setString(1, userEmail);
+                    ps.setLong(2, song.getSongId());
+                    setNullable(ps, 3, song.getSongTitle());
+                    setNullable(ps, 4, song.getArtist());
+                    setNullable(ps, 5, song.getMovieName());
+                    setNullable(ps, 6, song.getImageUrl());
+                    setNullable(ps, 7, song.getAudioSrc());
+                    ps.setTimestamp(8, now);
+                    ps.addBatch();
+                    if (++queued == batchSize) {
+                        int[] counts = ps.executeBatch();
+                        exact &= isExact(counts);
+                        inserted += sum(counts);
+                        queued = 0;
+                    }
+                }
+                if (queued > 0) {
+                    int[] counts = ps.executeBatch();
+                    exact &= isExact(counts);
+                    inserted += sum(counts);
+                }
+            }
+            if (!exact) {
+                // Rewritten batches report SUCCESS_NO_INFO and INSERT IGNORE skips
+                // silently, so count the rows; under REPEATABLE READ both counts come
+                // from the first read's snapshot plus this transaction's own inserts
+                return (int) (countPlaylistRows(connection, userEmail) - before);
+            }
+            return inserted;
+        });
+        return added == null ? 0 : added;
+    }
+
+    public record PlayDelta(long songId, long plays, long seconds) {
+    }
+
+    /** Adds each delta to the song's stored totals, creating rows as needed. */
+    @Transactional
+    public void upsertPlayCounts(List<PlayDelta> deltas) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO song_plays (song_id, play_count, seconds_played, updated_at) VALUES (?, ?, ?, ?)"
+                        + " ON DUPLICATE KEY UPDATE play_count = play_count + VALUES(play_count),"
+                        + " seconds_played = seconds_played + VALUES(seconds_played), updated_at = VALUES(updated_at)",
+                deltas, batchSize, (ps, delta) -> {
+                    ps.setLong(1, delta.songId());
+                    ps.setLong(2, delta.plays());
+                    ps.setLong(3, delta.seconds());
+                    ps.setTimestamp(4, now);
+                });
+    }
+
+    private static long countPlaylistRows(Connection connection, String userEmail) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(
+                "SELECT COUNT(*) FROM playlist_songs WHERE user_email = ?")) {
+            ps.setString(1, userEmail);
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return rs.getLong(1);
+            }
+        }
+    }
+
+    private static boolean isExact(int[] counts) {
+        for (int count : counts) {
+            if (count < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // INSERT IGNORE reports 0 for a skipped row
+    private static int sum(int[] counts) {
+        int total = 0;
+        for (int count : counts) {
+            total += count;
+        }
+        return total;
+    }
+
+    private static void setNullable(PreparedStatement ps, int index, String value) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, Types.VARCHAR);
+        } else {
+            ps.setString(index, value);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package project.com.repository;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.sql.SQLException;
+
+/**
+ * Tells a unique-key violation apart from other integrity failures (NOT NULL,
+ * foreign keys, oversized values). JPA saves surface all of them as plain
+ * DataIntegrityViolationException, so the driver's SQLException is checked.
+ */
+public final class DuplicateKeys {
+
+    // MySQL/MariaDB ER_DUP_ENTRY
+    private static final int MYSQL_DUP_ENTRY = 1062;
+    // SQL standard unique violation (H2, PostgreSQL)
+    private static final String UNIQUE_VIOLATION = "23505";
+
+    private DuplicateKeys() {
+    }
+
+    public static boolean isDuplicateKey(DataIntegrityViolationException e) {
+        if (e instanceof DuplicateKeyException) {
+            return true;
+        }
+        for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sql && isDuplicateKey(sql.getErrorCode(), sql.getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** The same test for drivers that report codes without an SQLException (R2DBC). */
+    public static boolean isDuplicateKey(int errorCode, String sqlState) {
+        return errorCode == MYSQL_DUP_ENTRY || UNIQUE_VIOLATION.equals(sqlState);
+    }
+}
@@ -1,22 +1,57 @@
 package project.com.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import project.com.model.LikedSong;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface LikedSongRepository extends JpaRepository<LikedSong, Long> {
     
-    @Query("SELECT ls FROM LikedSong ls WHERE ls.userEmail = :userEmail")
+    // Denormalized read. Rows written while normalized have no details of their own and take
+    // them from the song; the join is only probed for those rows
+    @Query("SELECT new project.com.model.LikedSong(ls.id, ls.userEmail, ls.songId, COALESCE(ls.songTitle, s.title), "
+            + "COALESCE(ls.artist, s.artist), COALESCE(ls.movieName, s.movieName), COALESCE(ls.imageUrl, s.image), "
+            + "COALESCE(ls.audioSrc, s.audioSrc), ls.createdAt) "
+            + "FROM LikedSong ls LEFT JOIN Song s ON ls.songTitle IS NULL AND s.id = ls.songId "
+            + "WHERE ls.userEmail = :userEmail AND (ls.songTitle IS NOT NULL OR s.id IS NOT NULL)")
     List<LikedSong> findByUserEmail(@Param("userEmail") String userEmail);
+
+    @Query("SELECT new project.com.model.LikedSong(ls.id, ls.userEmail, ls.songId, s.title, s.artist, s.movieName, s.image, s.audioSrc, ls.createdAt) "
+            + "FROM LikedSong ls JOIN Song s ON s.id = ls.songId WHERE ls.userEmail = :userEmail ORDER BY ls.createdAt")
+    List<LikedSong> findWithSongDetailsByUserEmail(@Param("userEmail") String userEmail);
+
+    @Query("SELECT COUNT(ls) FROM LikedSong ls WHERE ls.userEmail = :userEmail")
+    long countByUserEmail(@Param("userEmail") String userEmail);
+
+    @Query("SELECT ls.songId, COUNT(ls) FROM LikedSong ls GROUP BY ls.songId")
+    List<Object[]> countLikesBySong();
+
+    @Query("SELECT ls.songId FROM LikedSong ls WHERE ls.userEmail = :userEmail")
+    List<Long> findSongIdsByUserEmail(@Param("userEmail") String userEmail);
     
     @Query("SELECT COUNT(ls) FROM LikedSong ls WHERE ls.userEmail = :userEmail AND ls.songId = :songId")
     int existsByUserEmailAndSongId(@Param("userEmail") String userEmail, @Param("songId") Long songId);
+
+    @Query("SELECT DISTINCT ls.songId FROM LikedSong ls WHERE ls.userEmail = :userEmail AND ls.songId IN :songIds")
+    List<Long> findSongIdsIn(@Param("userEmail") String userEmail, @Param("songIds") Collection<Long> songIds);
     
+    @Modifying
+    @Transactional
     @Query("DELETE FROM LikedSong ls WHERE ls.userEmail = :userEmail AND ls.songId = :songId")
-    void deleteByUserEmailAndSongId(@Param("userEmail") String userEmail, @Param("songId") Long songId);
+    int deleteByUserEmailAndSongId(@Param("userEmail") String userEmail, @Param("songId") Long songId);
+
+    @Query("SELECT DISTINCT ls.userEmail FROM LikedSong ls WHERE ls.songId = :songId")
+    List<String> findUserEmailsBySongId(@Param("songId") Long songId);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM LikedSong ls WHERE ls.songId = :songId")
+    int deleteBySongId(@Param("songId") Long songId);
 } 
\ No newline at end of file
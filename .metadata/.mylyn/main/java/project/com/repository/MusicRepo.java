@@ -1,7 +1,9 @@
 package project.com.repository;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import project.com.model.Users;
 
@@ -10,11 +12,17 @@ import org.springframework.data.repository.query.Param;
 public interface MusicRepo extends JpaRepository<Users, String> {
 	
 
-		 @Query("select count(U) from Users U where U.email=:email")
-		  public int vaildateEmail(@Param("email") String email);
-
-		@Query("select count(U) from Users U where U.email=:email and U.password=:password")
-		public int validateCredentials(@Param("email") String email, @Param("password") String password);
+		// Plain INSERT, so a taken email fails on the primary key instead of merging over the row
+		@Modifying
+		@Transactional
+		@Query(value = "insert into users (email, fullname, password) values (:email, :fullname, :password)", nativeQuery = true)
+		public int insertUser(@Param("email") String email, @Param("fullname") String fullname,
+				@Param("password") String password);
+
+		@Modifying
+		@Transactional
+		@Query("update Users U set U.fullname=:fullname where U.email=:email")
+		public int updateFullname(@Param("email") String email, @Param("fullname") String fullname);
 		
 		
 
@@ -1,22 +1,54 @@
 package project.com.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import project.com.model.PlaylistSong;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface PlaylistSongRepository extends JpaRepository<PlaylistSong, Long> {
     
-    @Query("SELECT ps FROM PlaylistSong ps WHERE ps.userEmail = :userEmail")
+    // Denormalized read. Rows written while normalized have no details of their own and take
+    // them from the song; the join is only probed for those rows
+    @Query("SELECT new project.com.model.PlaylistSong(ps.id, ps.userEmail, ps.songId, COALESCE(ps.songTitle, s.title), "
+            + "COALESCE(ps.artist, s.artist), COALESCE(ps.movieName, s.movieName), COALESCE(ps.imageUrl, s.image), "
+            + "COALESCE(ps.audioSrc, s.audioSrc), ps.createdAt) "
+            + "FROM PlaylistSong ps LEFT JOIN Song s ON ps.songTitle IS NULL AND s.id = ps.songId "
+            + "WHERE ps.userEmail = :userEmail AND (ps.songTitle IS NOT NULL OR s.id IS NOT NULL)")
     List<PlaylistSong> findByUserEmail(@Param("userEmail") String userEmail);
+
+    @Query("SELECT new project.com.model.PlaylistSong(ps.id, ps.userEmail, ps.songId, s.title, s.artist, s.movieName, s.image, s.audioSrc, ps.createdAt) "
+            + "FROM PlaylistSong ps JOIN Song s ON s.id = ps.songId WHERE ps.userEmail = :userEmail ORDER BY ps.createdAt")
+    List<PlaylistSong> findWithSongDetailsByUserEmail(@Param("userEmail") String userEmail);
+
+    @Query("SELECT ps.songId FROM PlaylistSong ps WHERE ps.userEmail = :userEmail")
+    List<Long> findSongIdsByUserEmail(@Param("userEmail") String userEmail);
     
+    @Query("SELECT COUNT(ps) FROM PlaylistSong ps WHERE ps.userEmail = :userEmail")
+    long countByUserEmail(@Param("userEmail") String userEmail);
+
     @Query("SELECT COUNT(ps) FROM PlaylistSong ps WHERE ps.userEmail = :userEmail AND ps.songId = :songId")
     int existsByUserEmailAndSongId(@Param("userEmail") String userEmail, @Param("songId") Long songId);
+
+    @Query("SELECT DISTINCT ps.songId FROM PlaylistSong ps WHERE ps.userEmail = :userEmail AND ps.songId IN :songIds")
+    List<Long> findSongIdsIn(@Param("userEmail") String userEmail, @Param("songIds") Collection<Long> songIds);
     
+    @Modifying
+    @Transactional
     @Query("DELETE FROM PlaylistSong ps WHERE ps.userEmail = :userEmail AND ps.songId = :songId")
-    void deleteByUserEmailAndSongId(@Param("userEmail") String userEmail, @Param("songId") Long songId);
+    int deleteByUserEmailAndSongId(@Param("userEmail") String userEmail, @Param("songId") Long songId);
+
+    @Query("SELECT DISTINCT ps.userEmail FROM PlaylistSong ps WHERE ps.songId = :songId")
+    List<String> findUserEmailsBySongId(@Param("songId") Long songId);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM PlaylistSong ps WHERE ps.songId = :songId")
+    int deleteBySongId(@Param("songId") Long songId);
 } 
\ No newline at end of file
@@ -0,0 +1,9 @@
+package project.com.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import project.com.model.SongPlay;
+
+@Repository
+public interface SongPlayRepository extends JpaRepository<SongPlay, Long> {
+}
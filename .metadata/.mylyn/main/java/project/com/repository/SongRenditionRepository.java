@@ -0,0 +1,28 @@
+package project.com.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import project.com.model.QualityTier;
+import project.com.model.SongRendition;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface SongRenditionRepository extends JpaRepository<SongRendition, Long> {
+
+    @Query("SELECT r FROM SongRendition r WHERE r.songId = :songId")
+    List<SongRendition> findBySongId(@Param("songId") Long songId);
+
+    @Query("SELECT r FROM SongRendition r WHERE r.songId = :songId AND r.tier = :tier")
+    Optional<SongRendition> findBySongIdAndTier(@Param("songId") Long songId, @Param("tier") QualityTier tier);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM SongRendition r WHERE r.songId = :songId")
+    int deleteBySongId(@Param("songId") Long songId);
+}
@@ -1,9 +1,41 @@
 package project.com.repository;
 
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import project.com.model.Song;
+import project.com.model.SongSummary;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface SongRepository extends JpaRepository<Song, Long> {
+
+    @Query("SELECT new project.com.model.SongSummary(s.id, s.title, s.artist, s.audioSrc, s.image, s.genre, s.movieName) "
+            + "FROM Song s WHERE s.id > :afterId ORDER BY s.id")
+    List<SongSummary> findSummariesAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Id and natural key columns only, a keyset batch at a time, for de-duplicating catalog imports
+    @Query("SELECT s.id, s.title, s.artist, s.movieName FROM Song s WHERE s.id > :afterId ORDER BY s.id")
+    List<Object[]> findNaturalKeysAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT s.id, s.title, s.artist, s.movieName FROM Song s WHERE s.id IN :ids")
+    List<Object[]> findNaturalKeysByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT s FROM Song s ORDER BY s.id")
+    List<Song> findFirstSongs(Pageable pageable);
+
+    // Needs useCursorFetch on the MySQL URL so the fetch size is honoured server-side
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "500"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query("SELECT s FROM Song s ORDER BY s.id")
+    Stream<Song> streamAll();
 }
@@ -0,0 +1,316 @@
+package project.com.search;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import project.com.model.SongSummary;
+import project.com.repository.SongRepository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Song ids grouped by genre, artist and movie, each group a sorted primitive
+ * array, so a browse page is a hash lookup plus an array slice.
+ *
+ * Every distinct facet value gets an int code. A song keeps only the codes it
+ * was filed under, for removal, and ids arriving in increasing order (rebuilds,
+ * new songs) are appended rather than inserted.
+ */
+@Component
+public class SongFacetIndex {
+
+    public enum Facet {
+        GENRE, ARTIST, MOVIE
+    }
+
+    private static final int REBUILD_BATCH = 1000;
+    private static final Pattern ARTIST_SEPARATORS = Pattern.compile("[,&/]");
+
+    @Autowired
+    private SongRepository songRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Facet, Map<String, Integer>> codes = new EnumMap<>(Facet.class);
+    // code -> ids filed under that value
+    private final List<IdList> lists = new ArrayList<>();
+    // song id -> codes it was filed under
+    private final SongCodes songCodes = new SongCodes();
+
+    public SongFacetIndex() {
+        for (Facet facet : Facet.values()) {
+            codes.put(facet, new HashMap<>());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            for (IdList ids : lists) {
+                ids.clear();
+            }
+            songCodes.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        long afterId = 0;
+        List<SongSummary> batch;
+        do {
+            batch = songRepository.findSummariesAfter(afterId, PageRequest.of(0, REBUILD_BATCH));
+            indexAll(batch);
+            if (!batch.isEmpty()) {
+                afterId = batch.get(batch.size() - 1).getId();
+            }
+        } while (batch.size() == REBUILD_BATCH);
+    }
+
+    public void index(SongSummary song) {
+        indexAll(List.of(song));
+    }
+
+    /** Files a batch of songs under one lock acquisition. */
+    public void indexAll(Collection<SongSummary> songs) {
+        lock.writeLock().lock();
+        try {
+            for (SongSummary song : songs) {
+                indexLocked(song);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long songId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(songId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ids filed under the value, in id order, for the requested page.
+     */
+    public long[] find(Facet facet, String value, int page, int size) {
+        String key = Tokenizer.normalize(value);
+        lock.readLock().lock();
+        try {
+            Integer code = codes.get(facet).get(key);
+            if (code == null) {
+                return new long[0];
+            }
+            return lists.get(code).slice((long) page * size, size);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void indexLocked(SongSummary song) {
+        long songId = song.getId();
+        int[] filed = new int[8];
+        int n = 0;
+        n = code(Facet.GENRE, song.getGenre(), filed, n);
+        n = code(Facet.MOVIE, song.getMovieName(), filed, n);
+        // "A, B & C" is filed under each artist as well as the full credit
+        String credit = song.getArtist();
+        if (credit != null) {
+            n = code(Facet.ARTIST, credit, filed, n);
+            for (String part : ARTIST_SEPARATORS.split(credit)) {
+                filed = n < filed.length ? filed : Arrays.copyOf(filed, filed.length * 2);
+                n = code(Facet.ARTIST, part, filed, n);
+            }
+        }
+        filed = Arrays.copyOf(filed, n);
+
+        int[] previous = songCodes.get(songId);
+        if (previous != null && Arrays.equals(previous, filed)) {
+            // Re-saved without facet changes; nothing moves
+            return;
+        }
+        removeLocked(songId);
+        for (int code : filed) {
+            lists.get(code).add(songId);
+        }
+        if (n > 0) {
+            songCodes.put(songId, filed);
+        }
+    }
+
+    // Appends the value's code to filed unless it is blank or already there
+    private int code(Facet facet, String value, int[] filed, int n) {
+        String key = Tokenizer.normalize(value);
+        if (key.isEmpty()) {
+            return n;
+        }
+        Integer code = codes.get(facet).get(key);
+        if (code == null) {
+            code = lists.size();
+            lists.add(new IdList());
+            codes.get(facet).put(key, code);
+        }
+        for (int i = 0; i < n; i++) {
+            if (filed[i] == code) {
+                return n;
+            }
+        }
+        filed[n] = code;
+        return n + 1;
+    }
+
+    private void removeLocked(long songId) {
+        int[] filed = songCodes.remove(songId);
+        if (filed == null) {
+            return;
+        }
+        for (int code : filed) {
+            lists.get(code).remove(songId);
+        }
+    }
+
+    /** Sorted, growable run of ids; appends in id order are O(1). */
+    private static final class IdList {
+        private long[] ids = new long[4];
+        private int size;
+
+        void add(long id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            if (size == 0 || id > ids[size - 1]) {
+                ids[size++] = id;
+                return;
+            }
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos >= 0) {
+                return;
+            }
+            pos = -pos - 1;
+            System.arraycopy(ids, pos, ids, pos + 1, size - pos);
+            ids[pos] = id;
+            size++;
+        }
+
+        void remove(long id) {
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos < 0) {
+                return;
+            }
+            System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+            size--;
+        }
+
+        long[] slice(long from, int count) {
+            int start = (int) Math.min(from, size);
+            int end = (int) Math.min((long) start + count, size);
+            return Arrays.copyOfRange(ids, start, end);
+        }
+
+        void clear() {
+            ids = new long[4];
+            size = 0;
+        }
+    }
+
+    /**
+     * Open-addressing map from song id to its facet codes; one int[] per song
+     * instead of boxed keys, map nodes and sets. Song ids are never 0.
+     */
+    private static final class SongCodes {
+        private long[] keys = new long[16];
+        private int[][] values = new int[16][];
+        private int size;
+
+        void put(long songId, int[] filed) {
+            int mask = keys.length - 1;
+            int i = mix(songId) & mask;
+            while (keys[i] != 0 && keys[i] != songId) {
+                i = (i + 1) & mask;
+            }
+            if (keys[i] == 0) {
+                keys[i] = songId;
+                size++;
+            }
+            values[i] = filed;
+            if (size * 2 > keys.length) {
+                resize(keys.length << 1);
+            }
+        }
+
+        int[] get(long songId) {
+            int mask = keys.length - 1;
+            for (int i = mix(songId) & mask; keys[i] != 0; i = (i + 1) & mask) {
+                if (keys[i] == songId) {
+                    return values[i];
+                }
+            }
+            return null;
+        }
+
+        int[] remove(long songId) {
+            int mask = keys.length - 1;
+            int i = mix(songId) & mask;
+            while (keys[i] != songId) {
+                if (keys[i] == 0) {
+                    return null;
+                }
+                i = (i + 1) & mask;
+            }
+            int[] removed = values[i];
+            keys[i] = 0;
+            values[i] = null;
+            size--;
+            // Shift back the rest of the probe run so lookups never stop early
+            for (int j = (i + 1) & mask; keys[j] != 0; j = (j + 1) & mask) {
+                int home = mix(keys[j]) & mask;
+                if (((j - home) & mask) >= ((j - i) & mask)) {
+                    keys[i] = keys[j];
+                    values[i] = values[j];
+                    keys[j] = 0;
+                    values[j] = null;
+                    i = j;
+                }
+            }
+            return removed;
+        }
+
+        void clear() {
+            keys = new long[16];
+            values = new int[16][];
+            size = 0;
+        }
+
+        private void resize(int capacity) {
+            long[] oldKeys = keys;
+            int[][] oldValues = values;
+            keys = new long[capacity];
+            values = new int[capacity][];
+            int mask = capacity - 1;
+            for (int k = 0; k < oldKeys.length; k++) {
+                if (oldKeys[k] != 0) {
+                    int i = mix(oldKeys[k]) & mask;
+                    while (keys[i] != 0) {
+                        i = (i + 1) & mask;
+                    }
+                    keys[i] = oldKeys[k];
+                    values[i] = oldValues[k];
+                }
+            }
+        }
+
+        private static int mix(long value) {
+            long h = value * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}
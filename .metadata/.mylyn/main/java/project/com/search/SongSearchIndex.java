@@ -0,0 +1,346 @@
+package project.com.search;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import project.com.model.SearchResult;
+import project.com.model.SongSummary;
+import project.com.repository.SongRepository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over song titles, artists, movies and genres.
+ * Supports exact, prefix and single-typo term matches; every query term must
+ * match for a song to be returned, ranked by match quality and the field it
+ * matched in.
+ */
+@Component
+public class SongSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(SongSearchIndex.class);
+
+    static final int TITLE = 1;
+    static final int ARTIST = 2;
+    static final int MOVIE = 4;
+    static final int GENRE = 8;
+
+    private static final double EXACT_SCORE = 1.0;
+    private static final double FUZZY_SCORE = 0.4;
+    private static final int MAX_PREFIX_EXPANSIONS = 200;
+    private static final int MIN_FUZZY_LENGTH = 3;
+    private static final int REBUILD_BATCH = 1000;
+
+    @Autowired
+    private SongRepository songRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // term -> (song id -> bitmask of fields containing the term)
+    private final TreeMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+
+    // one-character deletions of each term -> terms, for typo matching
+    private final Map<String, Set<String>> deletions = new HashMap<>();
+
+    private final Map<Long, SongSummary> documents = new HashMap<>();
+    private final Map<Long, Set<String>> documentTerms = new HashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long started = System.currentTimeMillis();
+        clear();
+        long afterId = 0;
+        List<SongSummary> batch;
+        do {
+            batch = songRepository.findSummariesAfter(afterId, PageRequest.of(0, REBUILD_BATCH));
+            for (SongSummary song : batch) {
+                index(song);
+                afterId = song.getId();
+            }
+        } while (batch.size() == REBUILD_BATCH);
+        log.info("Indexed {} songs ({} terms) in {} ms", size(), termCount(), System.currentTimeMillis() - started);
+    }
+
+    public void index(SongSummary song) {
+        Map<String, Integer> fields = new HashMap<>();
+        addTerms(fields, song.getTitle(), TITLE);
+        addTerms(fields, song.getArtist(), ARTIST);
+        addTerms(fields, song.getMovieName(), MOVIE);
+        addTerms(fields, song.getGenre(), GENRE);
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(song.getId());
+            documents.put(song.getId(), song);
+            documentTerms.put(song.getId(), new HashSet<>(fields.keySet()));
+            for (Map.Entry<String, Integer> field : fields.entrySet()) {
+                Map<Long, Integer> docs = postings.get(field.getKey());
+                if (docs == null) {
+                    docs = new HashMap<>();
+                    postings.put(field.getKey(), docs);
+                    addDeletions(field.getKey());
+                }
+                docs.put(song.getId(), field.getValue());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long songId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(songId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public SearchResult search(String query, int page, int size) {
+        List<String> tokens = Tokenizer.tokenize(query);
+        if (tokens.isEmpty()) {
+            return new SearchResult(0, page, size, Collections.emptyList());
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<Long, Double> scores = null;
+            for (String token : tokens) {
+                Map<Long, Double> tokenScores = scoreToken(token);
+                if (scores == null) {
+                    scores = tokenScores;
+                } else {
+                    Map<Long, Double> both = new HashMap<>();
+                    for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+                        Double other = tokenScores.get(entry.getKey());
+                        if (other != null) {
+                            both.put(entry.getKey(), entry.getValue() + other);
+                        }
+                    }
+                    scores = both;
+                }
+                if (scores.isEmpty()) {
+                    break;
+                }
+            }
+            return topK(scores, page, size);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public SongSummary getDocument(Long songId) {
+        lock.readLock().lock();
+        try {
+            return documents.get(songId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int termCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Map<Long, Double> scoreToken(String token) {
+        Map<Long, Double> scores = new HashMap<>();
+
+        // Exact and prefix matches share one range scan of the sorted term map
+        NavigableMap<String, Map<Long, Integer>> range = postings.subMap(token, true, token + Character.MAX_VALUE, false);
+        int expansions = 0;
+        for (Map.Entry<String, Map<Long, Integer>> term : range.entrySet()) {
+            double match = term.getKey().length() == token.length()
+                    ? EXACT_SCORE
+                    : 0.5 + 0.4 * token.length() / term.getKey().length();
+            accumulate(scores, term.getValue(), match);
+            if (++expansions >= MAX_PREFIX_EXPANSIONS) {
+                break;
+            }
+        }
+
+        if (token.length() >= MIN_FUZZY_LENGTH) {
+            Set<String> candidates = new HashSet<>();
+            for (String variant : deletionVariants(token)) {
+                Set<String> terms = deletions.get(variant);
+                if (terms != null) {
+                    candidates.addAll(terms);
+                }
+            }
+            for (String term : candidates) {
+                if (!term.startsWith(token) && withinOneEdit(token, term)) {
+                    accumulate(scores, postings.get(term), FUZZY_SCORE);
+                }
+            }
+        }
+        return scores;
+    }
+
+    private static void accumulate(Map<Long, Double> scores, Map<Long, Integer> docs, double match) {
+        for (Map.Entry<Long, Integer> doc : docs.entrySet()) {
+            double score = match * fieldWeight(doc.getValue());
+            scores.merge(doc.getKey(), score, Math::max);
+        }
+    }
+
+    static double fieldWeight(int fields) {
+        if ((fields & TITLE) != 0) {
+            return 2.0;
+        }
+        if ((fields & (ARTIST | MOVIE)) != 0) {
+            return 1.0;
+        }
+        return 0.5;
+    }
+
+    private SearchResult topK(Map<Long, Double> scores, int page, int size) {
+        int k = (page + 1) * size;
+        Comparator<Map.Entry<Long, Double>> ranking = Map.Entry.<Long, Double>comparingByValue()
+                .thenComparing(Map.Entry.<Long, Double>comparingByKey().reversed());
+        PriorityQueue<Map.Entry<Long, Double>> heap = new PriorityQueue<>(Math.max(1, Math.min(k, scores.size())), ranking);
+        for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+            if (heap.size() < k) {
+                heap.add(entry);
+            } else if (ranking.compare(entry, heap.peek()) > 0) {
+                heap.poll();
+                heap.add(entry);
+            }
+        }
+        List<Map.Entry<Long, Double>> ranked = new ArrayList<>(heap);
+        ranked.sort(ranking.reversed());
+
+        List<SongSummary> songs = new ArrayList<>();
+        for (int i = page * size; i < ranked.size(); i++) {
+            songs.add(documents.get(ranked.get(i).getKey()));
+        }
+        return new SearchResult(scores.size(), page, size, songs);
+    }
+
+    private void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            deletions.clear();
+            documents.clear();
+            documentTerms.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeLocked(Long songId) {
+        documents.remove(songId);
+        Set<String> terms = documentTerms.remove(songId);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            Map<Long, Integer> docs = postings.get(term);
+            if (docs == null) {
+                continue;
+            }
+            docs.remove(songId);
+            if (docs.isEmpty()) {
+                postings.remove(term);
+                removeDeletions(term);
+            }
+        }
+    }
+
+    private static void addTerms(Map<String, Integer> fields, String text, int field) {
+        for (String token : Tokenizer.tokenize(text)) {
+            fields.merge(token, field, (a, b) -> a | b);
+        }
+    }
+
+    private void addDeletions(String term) {
+        if (term.length() < MIN_FUZZY_LENGTH) {
+            return;
+        }
+        for (String variant : deletionVariants(term)) {
+            deletions.computeIfAbsent(variant, v -> new HashSet<>()).add(term);
+        }
+    }
+
+    private void removeDeletions(String term) {
+        if (term.length() < MIN_FUZZY_LENGTH) {
+            return;
+        }
+        for (String variant : deletionVariants(term)) {
+            Set<String> terms = deletions.get(variant);
+            if (terms != null) {
+                terms.remove(term);
+                if (terms.isEmpty()) {
+                    deletions.remove(variant);
+                }
+            }
+        }
+    }
+
+    private static Set<String> deletionVariants(String term) {
+        Set<String> variants = new HashSet<>();
+        variants.add(term);
+        for (int i = 0; i < term.length(); i++) {
+            variants.add(term.substring(0, i) + term.substring(i + 1));
+        }
+        return variants;
+    }
+
+    /**
+     * True when the strings differ by at most one insertion, deletion,
+     * substitution or adjacent transposition.
+     */
+    static boolean withinOneEdit(String a, String b) {
+        int la = a.length();
+        int lb = b.length();
+        if (Math.abs(la - lb) > 1) {
+            return false;
+        }
+        int i = 0;
+        while (i < la && i < lb && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        if (i == la && i == lb) {
+            return true;
+        }
+        if (la == lb) {
+            // substitution, or transposition of i and i+1
+            if (a.regionMatches(i + 1, b, i + 1, la - i - 1)) {
+                return true;
+            }
+            return i + 1 < la && a.charAt(i) == b.charAt(i + 1) && a.charAt(i + 1) == b.charAt(i)
+                    && a.regionMatches(i + 2, b, i + 2, la - i - 2);
+        }
+        return la > lb
+                ? a.regionMatches(i + 1, b, i, lb - i)
+                : b.regionMatches(i + 1, a, i, la - i);
+    }
+}
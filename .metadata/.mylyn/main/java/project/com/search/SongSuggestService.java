@@ -0,0 +1,142 @@
+package project.com.search;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import project.com.model.SongSummary;
+import project.com.model.Suggestion;
+import project.com.plays.PlayTracker;
+import project.com.repository.LikedSongRepository;
+import project.com.repository.SongRepository;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Typeahead over song titles and artists. The completion table is rebuilt in
+ * the background and swapped in whole, so lookups never touch the database.
+ */
+@Service
+public class SongSuggestService {
+
+    private static final Logger log = LoggerFactory.getLogger(SongSuggestService.class);
+    private static final int REBUILD_BATCH = 1000;
+
+    @Autowired
+    private SongRepository songRepository;
+
+    @Autowired
+    private LikedSongRepository likedSongRepository;
+
+    @Autowired
+    private PlayTracker playTracker;
+
+    @Value("${musicapp.suggest.max-results:10}")
+    private int maxResults;
+
+    @Value("${musicapp.suggest.max-age-ms:600000}")
+    private long maxAgeMillis;
+
+    // A like counts for this many plays when ranking completions
+    @Value("${musicapp.suggest.like-weight:10}")
+    private long likeWeight;
+
+    private volatile SuggestTrie trie = SuggestTrie.EMPTY;
+
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private final AtomicLong changes = new AtomicLong();
+    private long builtAtChange = -1;
+    private long builtAt;
+
+    public List<Suggestion> suggest(String query, int limit) {
+        String prefix = Tokenizer.normalize(query);
+        if (prefix.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return trie.complete(prefix, Math.max(1, Math.min(limit, maxResults)));
+    }
+
+    /**
+     * Marks the table stale; the next refresh tick rebuilds it.
+     */
+    public void catalogChanged() {
+        changes.incrementAndGet();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${musicapp.suggest.refresh-ms:30000}")
+    public void refresh() {
+        if (builtAtChange != changes.get() || System.currentTimeMillis() - builtAt > maxAgeMillis) {
+            rebuild();
+        }
+    }
+
+    void rebuild() {
+        rebuildLock.lock();
+        try {
+            long started = System.currentTimeMillis();
+            long change = changes.get();
+            Map<Long, Long> likes = likeCounts();
+            Map<Long, Long> plays = playTracker.playCounts();
+
+            Map<String, long[]> artistWeights = new HashMap<>();
+            Map<String, String> artistNames = new HashMap<>();
+            SuggestTrie.Builder builder = new SuggestTrie.Builder(maxResults);
+
+            long afterId = 0;
+            List<SongSummary> batch;
+            do {
+                batch = songRepository.findSummariesAfter(afterId, PageRequest.of(0, REBUILD_BATCH));
+                for (SongSummary song : batch) {
+                    afterId = song.getId();
+                    long weight = 1 + likeWeight * likes.getOrDefault(song.getId(), 0L)
+                            + plays.getOrDefault(song.getId(), 0L);
+                    if (song.getTitle() != null) {
+                        builder.add(song.getTitle(), new Suggestion(song.getTitle(), "song", song.getId(), weight));
+                    }
+                    String artistKey = Tokenizer.normalize(song.getArtist());
+                    if (!artistKey.isEmpty()) {
+                        artistNames.putIfAbsent(artistKey, song.getArtist().trim());
+                        artistWeights.computeIfAbsent(artistKey, k -> new long[1])[0] += weight;
+                    }
+                }
+            } while (batch.size() == REBUILD_BATCH);
+
+            for (Map.Entry<String, long[]> artist : artistWeights.entrySet()) {
+                String name = artistNames.get(artist.getKey());
+                builder.add(name, new Suggestion(name, "artist", null, artist.getValue()[0]));
+            }
+
+            SuggestTrie built = builder.build();
+            trie = built;
+            builtAtChange = change;
+            builtAt = System.currentTimeMillis();
+            log.info("Suggest table rebuilt: {} keys, {} heavy prefixes in {} ms",
+                    built.size(), built.heavyNodeCount(), builtAt - started);
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private Map<Long, Long> likeCounts() {
+        Map<Long, Long> counts = new HashMap<>();
+        for (Object[] row : likedSongRepository.countLikesBySong()) {
+            counts.put((Long) row[0], (Long) row[1]);
+        }
+        return counts;
+    }
+}
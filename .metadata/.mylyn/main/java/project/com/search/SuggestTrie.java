@@ -0,0 +1,174 @@
+package project.com.search;
+
+import project.com.model.Suggestion;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable completion table. Keys are kept in one sorted array, so every
+ * prefix maps to a contiguous range found by binary search. Only the "heavy"
+ * trie nodes, whose range holds more than {@code topN} keys, get a precomputed
+ * best-first list; lighter ranges are small enough to rank on the fly.
+ * A key may repeat, once per suggestion filed under it (two songs with the
+ * same title, or an artist named like a song).
+ */
+final class SuggestTrie {
+
+    static final SuggestTrie EMPTY = new Builder(10).build();
+
+    private final String[] keys;
+    private final Suggestion[] values;
+    private final int topN;
+    private final Map<String, int[]> heavy;
+
+    private SuggestTrie(String[] keys, Suggestion[] values, int topN, Map<String, int[]> heavy) {
+        this.keys = keys;
+        this.values = values;
+        this.topN = topN;
+        this.heavy = heavy;
+    }
+
+    List<Suggestion> complete(String prefix, int limit) {
+        int n = Math.min(limit, topN);
+        int[] ranked = heavy.get(prefix);
+        if (ranked == null) {
+            int lo = lowerBound(prefix);
+            int hi = lowerBound(prefix + Character.MAX_VALUE);
+            ranked = rank(lo, hi);
+        }
+        List<Suggestion> result = new ArrayList<>(n);
+        for (int i = 0; i < ranked.length && result.size() < n; i++) {
+            result.add(values[ranked[i]]);
+        }
+        return result;
+    }
+
+    int size() {
+        return keys.length;
+    }
+
+    int heavyNodeCount() {
+        return heavy.size();
+    }
+
+    private int lowerBound(String key) {
+        int lo = 0;
+        int hi = keys.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keys[mid].compareTo(key) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private int[] rank(int lo, int hi) {
+        return rank(values, lo, hi, topN);
+    }
+
+    private static int[] rank(Suggestion[] values, int lo, int hi, int topN) {
+        Integer[] indexes = new Integer[hi - lo];
+        for (int i = lo; i < hi; i++) {
+            indexes[i - lo] = i;
+        }
+        Arrays.sort(indexes, Comparator.<Integer>comparingLong(i -> -values[i].getWeight()).thenComparing(i -> i));
+        // Word suffixes file one suggestion under several keys of the same range; rank it once
+        int[] ranked = new int[Math.min(indexes.length, topN)];
+        int kept = 0;
+        Set<Suggestion> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int i = 0; i < indexes.length && kept < ranked.length; i++) {
+            if (seen.add(values[indexes[i]])) {
+                ranked[kept++] = indexes[i];
+            }
+        }
+        return kept == ranked.length ? ranked : Arrays.copyOf(ranked, kept);
+    }
+
+    static final class Builder {
+
+        private final int topN;
+        private final List<Entry> entries = new ArrayList<>();
+        // "key|type|id or text", so re-adding the same suggestion under a key is a no-op
+        private final Set<String> filed = new HashSet<>();
+
+        Builder(int topN) {
+            this.topN = topN;
+        }
+
+        /**
+         * Adds the suggestion under its full text and under each later word,
+         * so "tiger" also completes "All Hail The Tiger".
+         */
+        Builder add(String text, Suggestion suggestion) {
+            List<String> words = Tokenizer.tokenize(text);
+            String identity = suggestion.getType() + "|"
+                    + (suggestion.getSongId() != null ? suggestion.getSongId() : suggestion.getText());
+            for (int i = 0; i < words.size(); i++) {
+                String key = String.join(" ", words.subList(i, words.size()));
+                if (filed.add(key + "|" + identity)) {
+                    entries.add(new Entry(key, suggestion));
+                }
+            }
+            return this;
+        }
+
+        SuggestTrie build() {
+            entries.sort(Comparator.comparing((Entry e) -> e.key));
+            String[] keys = new String[entries.size()];
+            Suggestion[] values = new Suggestion[entries.size()];
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = entries.get(i).key;
+                values[i] = entries.get(i).suggestion;
+            }
+            Map<String, int[]> heavy = new HashMap<>();
+            collectHeavy(keys, values, "", 0, keys.length, heavy);
+            return new SuggestTrie(keys, values, topN, heavy);
+        }
+
+        // Walks the implicit trie, storing a ranked list for every node too big to rank per request
+        private void collectHeavy(String[] keys, Suggestion[] values, String prefix, int lo, int hi,
+                                  Map<String, int[]> heavy) {
+            if (hi - lo <= topN) {
+                return;
+            }
+            heavy.put(prefix, rank(values, lo, hi, topN));
+            int depth = prefix.length();
+            int i = lo;
+            // Keys equal to the prefix itself sort first and have no child
+            while (i < hi && keys[i].length() == depth) {
+                i++;
+            }
+            while (i < hi) {
+                char c = keys[i].charAt(depth);
+                int j = i;
+                while (j < hi && keys[j].charAt(depth) == c) {
+                    j++;
+                }
+                collectHeavy(keys, values, prefix + c, i, j, heavy);
+                i = j;
+            }
+        }
+    }
+
+    private static final class Entry {
+        final String key;
+        final Suggestion suggestion;
+
+        Entry(String key, Suggestion suggestion) {
+            this.key = key;
+            this.suggestion = suggestion;
+        }
+    }
+}
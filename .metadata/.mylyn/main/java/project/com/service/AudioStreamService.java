@@ -0,0 +1,290 @@
+package project.com.service;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Service;
+import project.com.model.Song;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Service
+public class AudioStreamService {
+
+    // Tomcat's NIO connector sends these straight from the page cache (sendfile)
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final int MAX_RANGES = 16;
+
+    private final Path mediaDir;
+
+    public AudioStreamService(@Value("${musicapp.media.dir:media}") String mediaDir) {
+        this.mediaDir = Paths.get(mediaDir).toAbsolutePath().normalize();
+    }
+
+    /**
+     * Maps a song's audioSrc (URL or relative path) to a file inside the media directory.
+     */
+    public Optional<Path> resolveAudio(Song song) {
+        String src = song.getAudioSrc();
+        if (src == null || src.isEmpty()) {
+            return Optional.empty();
+        }
+        String path;
+        try {
+            path = URI.create(src.replace(" ", "%20")).getPath();
+        } catch (IllegalArgumentException e) {
+            path = src;
+        }
+        if (path == null) {
+            return Optional.empty();
+        }
+        String fileName = URLDecoder.decode(path.substring(path.lastIndexOf('/') + 1), StandardCharsets.UTF_8);
+        return resolveMedia(fileName);
+    }
+
+    public Optional<Path> resolveMedia(String relativePath) {
+        if (relativePath.isEmpty()) {
+            return Optional.empty();
+        }
+        Path file = mediaDir.resolve(relativePath).normalize();
+        if (!file.startsWith(mediaDir) || !Files.isRegularFile(file) || !Files.isReadable(file)) {
+            return Optional.empty();
+        }
+        return Optional.of(file);
+    }
+
+    public Path getMediaDir() {
+        return mediaDir;
+    }
+
+    /**
+     * Writes the file, honouring Range / If-Range, as 200, 206 (single or
+     * multipart/byteranges) or 416.
+     */
+    public void stream(Path file, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        long length = Files.size(file);
+        long lastModified = Files.getLastModifiedTime(file).toMillis();
+        String etag = "\"" + Long.toString(length, 36) + "-" + Long.toString(lastModified, 36) + "\"";
+        String contentType = contentType(file);
+        boolean head = "HEAD".equals(request.getMethod());
+
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=86400");
+
+        List<long[]> ranges = null;
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (rangeHeader != null && (ifRange == null || ifRange.equals(etag))) {
+            ranges = parseRanges(rangeHeader, length);
+            if (ranges == null) {
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                return;
+            }
+        }
+
+        if (ranges == null || ranges.isEmpty()) {
+            response.setStatus(HttpServletResponse.SC_OK);
+            response.setContentType(contentType);
+            response.setContentLengthLong(length);
+            if (!head) {
+                send(file, 0, length, request, response);
+            }
+            return;
+        }
+
+        response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        if (ranges.size() == 1) {
+            long start = ranges.get(0)[0];
+            long end = ranges.get(0)[1];
+            response.setContentType(contentType);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            response.setContentLengthLong(end - start + 1);
+            if (!head) {
+                send(file, start, end - start + 1, request, response);
+            }
+            return;
+        }
+
+        // Several ranges: multipart/byteranges, each part copied channel to channel
+        String boundary = UUID.randomUUID().toString();
+        List<byte[]> partHeaders = new ArrayList<>();
+        long total = 0;
+        for (long[] range : ranges) {
+            byte[] header = ("\r\n--" + boundary + "\r\n"
+                    + "Content-Type: " + contentType + "\r\n"
+                    + "Content-Range: bytes " + range[0] + "-" + range[1] + "/" + length + "\r\n\r\n")
+                    .getBytes(StandardCharsets.US_ASCII);
+            partHeaders.add(header);
+            total += header.length + range[1] - range[0] + 1;
+        }
+        byte[] trailer = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+        total += trailer.length;
+
+        response.setContentType("multipart/byteranges; boundary=" + boundary);
+        response.setContentLengthLong(total);
+        if (head) {
+            return;
+        }
+        OutputStream out = response.getOutputStream();
+        WritableByteChannel target = Channels.newChannel(out);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            for (int i = 0; i < ranges.size(); i++) {
+                out.write(partHeaders.get(i));
+                long[] range = ranges.get(i);
+                transfer(channel, range[0], range[1] - range[0] + 1, target);
+            }
+        }
+        out.write(trailer);
+        out.flush();
+    }
+
+    private void send(Path file, long start, long count, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // Container copies the region itself after the handler returns
+            request.setAttribute(SENDFILE_FILENAME, file.toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, start + count);
+            return;
+        }
+        WritableByteChannel target = Channels.newChannel(response.getOutputStream());
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            transfer(channel, start, count, target);
+        }
+        response.flushBuffer();
+    }
+
+    private static void transfer(FileChannel channel, long position, long count, WritableByteChannel target)
+            throws IOException {
+        // transferTo may move fewer bytes than asked, so loop until done
+        while (count > 0) {
+            long sent = channel.transferTo(position, count, target);
+            if (sent <= 0) {
+                throw new IOException("Short transfer at offset " + position);
+            }
+            position += sent;
+            count -= sent;
+        }
+    }
+
+    /**
+     * Parses "bytes=a-b,c-,-d" into inclusive [start, end] pairs, sorted, with
+     * overlapping or adjacent ranges merged (RFC 7233 section 6.1).
+     *
+     * @return empty to ignore the header, null when nothing is satisfiable
+     */
+    static List<long[]> parseRanges(String header, long length) {
+        List<long[]> ranges = new ArrayList<>();
+        if (!header.startsWith("bytes=")) {
+            return ranges;
+        }
+        String[] specs = header.substring("bytes=".length()).split(",");
+        if (specs.length > MAX_RANGES) {
+            // Too many ranges is a known amplification vector; send the whole file
+            return ranges;
+        }
+        for (String spec : specs) {
+            String value = spec.trim();
+            int dash = value.indexOf('-');
+            if (dash < 0) {
+                return new ArrayList<>();
+            }
+            try {
+                long start;
+                long end;
+                if (dash == 0) {
+                    long suffix = Long.parseLong(value.substring(1));
+                    if (suffix <= 0) {
+                        continue;
+                    }
+                    start = Math.max(0, length - suffix);
+                    end = length - 1;
+                } else {
+                    start = Long.parseLong(value.substring(0, dash));
+                    if (dash == value.length() - 1) {
+                        end = length - 1;
+                    } else {
+                        end = Long.parseLong(value.substring(dash + 1));
+                        if (end < start) {
+                            return new ArrayList<>();
+                        }
+                        end = Math.min(end, length - 1);
+                    }
+                }
+                if (start < length) {
+                    ranges.add(new long[] {start, end});
+                }
+            } catch (NumberFormatException e) {
+                return new ArrayList<>();
+            }
+        }
+        if (ranges.isEmpty()) {
+            return null;
+        }
+        return coalesce(ranges, length);
+    }
+
+    private static List<long[]> coalesce(List<long[]> ranges, long length) {
+        long requested = 0;
+        for (long[] range : ranges) {
+            requested += range[1] - range[0] + 1;
+        }
+        if (requested > length) {
+            // More bytes than the file holds (e.g. "0-,0-,..."): one 200 instead of repeats
+            return new ArrayList<>();
+        }
+        ranges.sort(Comparator.comparingLong(range -> range[0]));
+        List<long[]> merged = new ArrayList<>(ranges.size());
+        long[] current = ranges.get(0);
+        for (int i = 1; i < ranges.size(); i++) {
+            long[] next = ranges.get(i);
+            if (next[0] <= current[1] + 1) {
+                current = new long[] {current[0], Math.max(current[1], next[1])};
+            } else {
+                merged.add(current);
+                current = next;
+            }
+        }
+        merged.add(current);
+        return merged;
+    }
+
+    private static String contentType(Path file) {
+        String name = file.getFileName().toString().toLowerCase();
+        if (name.endsWith(".mp3")) {
+            return "audio/mpeg";
+        } else if (name.endsWith(".m4a") || name.endsWith(".aac")) {
+            return "audio/mp4";
+        } else if (name.endsWith(".ogg") || name.endsWith(".opus")) {
+            return "audio/ogg";
+        } else if (name.endsWith(".wav")) {
+            return "audio/wav";
+        } else if (name.endsWith(".flac")) {
+            return "audio/flac";
+        }
+        return "application/octet-stream";
+    }
+}
@@ -0,0 +1,568 @@
+package project.com.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import project.com.cache.LongLongHashMap;
+import project.com.cache.LruCache;
+import project.com.model.ImportJob;
+import project.com.model.Song;
+import project.com.repository.SongRepository;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Imports a CSV or NDJSON catalog file from the import directory. One thread
+ * reads lines into chunks, a bounded pool parses and validates chunks in
+ * parallel, and the reading thread de-duplicates and inserts the results in
+ * file order. At most a fixed number of chunks is in memory at a time.
+ */
+@Service
+public class CatalogImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogImportService.class);
+
+    private static final int MAX_COLUMN_LENGTH = 255;
+    private static final int MAX_JOBS_KEPT = 100;
+    // Stored keys are read and hashed this many rows at a time
+    private static final int KEY_BATCH = 10_000;
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    @Autowired
+    private SongService songService;
+
+    @Autowired
+    private SongRepository songRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final Path importDir;
+    private final int chunkLines;
+    private final int batchRows;
+    private final int maxChunksInFlight;
+
+    private final ThreadPoolExecutor parsers;
+    private final ThreadPoolExecutor jobRunner;
+
+    private final LruCache<String, ImportJob> jobs = new LruCache<>(MAX_JOBS_KEPT, 0);
+
+    public CatalogImportService(@Value("${musicapp.import.dir:imports}") String importDir,
+                                @Value("${musicapp.import.workers:4}") int workers,
+                                @Value("${musicapp.import.chunk-lines:2000}") int chunkLines,
+                                @Value("${musicapp.import.batch-rows:1000}") int batchRows,
+                                @Value("${musicapp.import.queue:10}") int queuedJobs) {
+        this.importDir = Paths.get(importDir).toAbsolutePath().normalize();
+        this.chunkLines = chunkLines;
+        this.batchRows = batchRows;
+        this.maxChunksInFlight = workers * 2;
+        AtomicInteger threadIds = new AtomicInteger();
+        this.parsers = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(maxChunksInFlight), r -> {
+                    Thread thread = new Thread(r, "import-parser-" + threadIds.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.jobRunner = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queuedJobs), r -> {
+                    Thread thread = new Thread(r, "catalog-import");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    public Optional<Path> resolveImportFile(String name) {
+        if (name == null || name.isEmpty()) {
+            return Optional.empty();
+        }
+        Path file = importDir.resolve(name).normalize();
+        if (!file.startsWith(importDir) || !Files.isRegularFile(file) || !Files.isReadable(file)) {
+            return Optional.empty();
+        }
+        return Optional.of(file);
+    }
+
+    /** Queues the import; throws RejectedExecutionException when too many are waiting. */
+    public ImportJob startImport(Path file) throws IOException {
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), importDir.relativize(file).toString(),
+                Files.size(file));
+        jobs.put(job.getId(), job);
+        try {
+            jobRunner.execute(() -> run(job, file));
+        } catch (RejectedExecutionException e) {
+            jobs.invalidate(job.getId());
+            throw e;
+        }
+        return job;
+    }
+
+    public Optional<ImportJob> getJob(String id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobRunner.shutdownNow();
+        parsers.shutdownNow();
+    }
+
+    private void run(ImportJob job, Path file) {
+        job.start();
+        try {
+            importFile(job, file);
+            job.complete();
+            log.info("Imported {} songs from {} ({} duplicates, {} rejected) at {} rows/s",
+                    job.getImported(), job.getFile(), job.getDuplicates(), job.getRejected(), job.getRowsPerSecond());
+        } catch (Exception e) {
+            log.warn("Import of {} failed", job.getFile(), e);
+            job.fail(e.getMessage());
+        }
+    }
+
+    private void importFile(ImportJob job, Path file) throws Exception {
+        boolean csv = file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".csv");
+        SeenKeys seen = loadExistingKeys();
+        Deque<Future<List<Song>>> inFlight = new ArrayDeque<>();
+        List<Song> batch = new ArrayList<>(batchRows);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+             BufferedReader reader = new BufferedReader(Channels.newReader(channel, StandardCharsets.UTF_8), 1 << 16)) {
+            int[] columns = null;
+            long lineNumber = 0;
+            if (csv) {
+                String header = reader.readLine();
+                lineNumber++;
+                if (header == null) {
+                    return;
+                }
+                columns = csvColumns(header);
+            }
+
+            List<String> chunk = new ArrayList<>(chunkLines);
+            long chunkStart = lineNumber + 1;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                chunk.add(line);
+                if (chunk.size() == chunkLines) {
+                    submit(inFlight, job, chunk, chunkStart, columns);
+                    chunk = new ArrayList<>(chunkLines);
+                    chunkStart = lineNumber + 1;
+                    job.setBytesRead(channel.position());
+                    // Backpressure: parse no further ahead than the writer can take
+                    while (inFlight.size() >= maxChunksInFlight) {
+                        batch = write(job, inFlight.poll(), seen, batch);
+                    }
+                }
+            }
+            if (!chunk.isEmpty()) {
+                submit(inFlight, job, chunk, chunkStart, columns);
+            }
+            job.setBytesRead(channel.position());
+
+            while (!inFlight.isEmpty()) {
+                batch = write(job, inFlight.poll(), seen, batch);
+            }
+        } catch (Exception e) {
+            inFlight.forEach(f -> f.cancel(true));
+            throw e;
+        }
+        if (!batch.isEmpty()) {
+            save(job, batch, seen);
+        }
+    }
+
+    private void submit(Deque<Future<List<Song>>> inFlight, ImportJob job, List<String> lines,
+                        long firstLine, int[] columns) {
+        inFlight.add(parsers.submit(() -> parseChunk(job, lines, firstLine, columns)));
+    }
+
+    private List<Song> write(ImportJob job, Future<List<Song>> parsed, SeenKeys seen, List<Song> batch)
+            throws InterruptedException, ExecutionException {
+        List<Song> deferred = new ArrayList<>();
+        for (Song song : parsed.get()) {
+            Verdict verdict = seen.offer(song);
+            if (verdict == Verdict.UNCONFIRMED) {
+                deferred.add(song);
+            } else if (verdict == Verdict.DUPLICATE) {
+                job.addDuplicate();
+            } else {
+                batch = add(job, batch, song, seen);
+            }
+        }
+        if (!deferred.isEmpty()) {
+            // Hash hits on stored songs, confirmed with one query per chunk
+            List<Song> fresh = seen.confirm(deferred);
+            for (int i = fresh.size(); i < deferred.size(); i++) {
+                job.addDuplicate();
+            }
+            for (Song song : fresh) {
+                batch = add(job, batch, song, seen);
+            }
+        }
+        return batch;
+    }
+
+    private List<Song> add(ImportJob job, List<Song> batch, Song song, SeenKeys seen) {
+        batch.add(song);
+        if (batch.size() < batchRows) {
+            return batch;
+        }
+        save(job, batch, seen);
+        return new ArrayList<>(batchRows);
+    }
+
+    private void save(ImportJob job, List<Song> batch, SeenKeys seen) {
+        songService.saveSongs(batch);
+        seen.saved(batch);
+        job.addImported(batch.size());
+    }
+
+    private List<Song> parseChunk(ImportJob job, List<String> lines, long firstLine, int[] columns) {
+        List<Song> songs = new ArrayList<>(lines.size());
+        long records = 0;
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i);
+            if (line.isBlank()) {
+                continue;
+            }
+            records++;
+            long lineNumber = firstLine + i;
+            Song song;
+            try {
+                song = columns != null ? csvSong(line, columns) : objectMapper.readValue(line, Song.class);
+            } catch (IOException | IllegalArgumentException e) {
+                job.reject(lineNumber, "unparseable record");
+                continue;
+            }
+            String problem = validate(song);
+            if (problem != null) {
+                job.reject(lineNumber, problem);
+                continue;
+            }
+            song.setId(null);
+            songs.add(song);
+        }
+        job.addRecords(records);
+        return songs;
+    }
+
+    private static String validate(Song song) {
+        if (song == null) {
+            return "empty record";
+        }
+        if (isBlank(song.getTitle())) {
+            return "title is required";
+        }
+        if (isBlank(song.getAudioSrc())) {
+            return "audioSrc is required";
+        }
+        for (String value : new String[]{song.getTitle(), song.getArtist(), song.getAudioSrc(), song.getImage(),
+                song.getGenre(), song.getMovieName()}) {
+            if (value != null && value.length() > MAX_COLUMN_LENGTH) {
+                return "value longer than " + MAX_COLUMN_LENGTH + " characters";
+            }
+        }
+        return null;
+    }
+
+    private SeenKeys loadExistingKeys() {
+        SeenKeys seen = new SeenKeys((int) Math.min(Integer.MAX_VALUE, songRepository.count()));
+        // Keyset batches, so only one batch of strings is alive while the hashes are built
+        long afterId = 0;
+        List<Object[]> rows;
+        do {
+            rows = songRepository.findNaturalKeysAfter(afterId, PageRequest.of(0, KEY_BATCH));
+            if (rows.isEmpty()) {
+                break;
+            }
+            seen.addStored(rows);
+            afterId = (Long) rows.get(rows.size() - 1)[0];
+        } while (rows.size() == KEY_BATCH);
+        return seen;
+    }
+
+    private enum Verdict {
+        NEW, DUPLICATE, UNCONFIRMED
+    }
+
+    /**
+     * Natural keys seen so far, each held as its 64-bit hash mapped to the id
+     * of a stored song with that key: two longs per song instead of a String.
+     * A hash hit only counts as a duplicate once the normalized strings match,
+     * read back from the database for stored songs. The few hashes shared by
+     * different keys keep their exact keys.
+     */
+    private final class SeenKeys {
+        private final LongLongHashMap idsByHash;
+        // Keys in the batch not yet saved, which have no ids
+        private final Map<Long, String> unsaved = new HashMap<>();
+        // Hash shared by different keys -> every key seen under it
+        private final Map<Long, Set<String>> collided = new HashMap<>();
+
+        SeenKeys(int expectedSize) {
+            this.idsByHash = new LongLongHashMap(Math.max(16, expectedSize));
+        }
+
+        // rows are one batch of (id, title, artist, movieName), in id order after earlier batches
+        void addStored(List<Object[]> rows) {
+            // Repeat hashes by the id first stored under them, compared once the batch is read
+            Map<Long, List<String>> repeats = new HashMap<>();
+            for (Object[] row : rows) {
+                String key = naturalKey((String) row[1], (String) row[2], (String) row[3]);
+                long hash = hash(key);
+                long firstId = idsByHash.get(hash, 0);
+                if (firstId == 0) {
+                    idsByHash.putIfAbsent(hash, (Long) row[0]);
+                } else if (collided.containsKey(hash)) {
+                    collided.get(hash).add(key);
+                } else {
+                    repeats.computeIfAbsent(firstId, id -> new ArrayList<>()).add(key);
+                }
+            }
+            if (repeats.isEmpty()) {
+                return;
+            }
+            Map<Long, String> firstKeys = new HashMap<>();
+            for (Object[] row : rows) {
+                if (repeats.containsKey((Long) row[0])) {
+                    firstKeys.put((Long) row[0], naturalKey((String) row[1], (String) row[2], (String) row[3]));
+                }
+            }
+            // First ids from earlier batches are read back; their strings were not kept
+            List<Long> earlier = new ArrayList<>();
+            for (Long id : repeats.keySet()) {
+                if (!firstKeys.containsKey(id)) {
+                    earlier.add(id);
+                }
+            }
+            if (!earlier.isEmpty()) {
+                for (Object[] row : songRepository.findNaturalKeysByIdIn(earlier)) {
+                    firstKeys.put((Long) row[0], naturalKey((String) row[1], (String) row[2], (String) row[3]));
+                }
+            }
+            for (Map.Entry<Long, List<String>> repeat : repeats.entrySet()) {
+                // Usually the catalog already holds the song twice; rarely a collision
+                String firstKey = firstKeys.get(repeat.getKey());
+                for (String key : repeat.getValue()) {
+                    if (!key.equals(firstKey)) {
+                        Set<String> keys = collided.computeIfAbsent(hash(key), h -> new HashSet<>());
+                        if (firstKey != null) {
+                            keys.add(firstKey);
+                        }
+                        keys.add(key);
+                    }
+                }
+            }
+        }
+
+        Verdict offer(Song song) {
+            String key = naturalKey(song);
+            long hash = hash(key);
+            Set<String> keys = collided.get(hash);
+            if (keys != null) {
+                return keys.add(key) ? Verdict.NEW : Verdict.DUPLICATE;
+            }
+            String batchKey = unsaved.get(hash);
+            if (batchKey != null) {
+                if (batchKey.equals(key)) {
+                    return Verdict.DUPLICATE;
+                }
+                collided.put(hash, new HashSet<>(List.of(batchKey, key)));
+                return Verdict.NEW;
+            }
+            if (idsByHash.get(hash, 0) != 0) {
+                return Verdict.UNCONFIRMED;
+            }
+            unsaved.put(hash, key);
+            return Verdict.NEW;
+        }
+
+        /** Compares UNCONFIRMED songs with the stored songs they hashed to; returns the new ones in order. */
+        List<Song> confirm(List<Song> songs) {
+            Set<Long> ids = new HashSet<>();
+            for (Song song : songs) {
+                ids.add(idsByHash.get(hash(naturalKey(song)), 0));
+            }
+            Map<Long, String> storedKeys = new HashMap<>();
+            for (Object[] row : songRepository.findNaturalKeysByIdIn(ids)) {
+                storedKeys.put((Long) row[0], naturalKey((String) row[1], (String) row[2], (String) row[3]));
+            }
+            List<Song> fresh = new ArrayList<>();
+            for (Song song : songs) {
+                String key = naturalKey(song);
+                long hash = hash(key);
+                Set<String> keys = collided.get(hash);
+                if (keys == null) {
+                    String storedKey = storedKeys.get(idsByHash.get(hash, 0));
+                    if (key.equals(storedKey)) {
+                        continue;
+                    }
+                    // Same hash, different song (or the stored one was deleted meanwhile)
+                    keys = new HashSet<>();
+                    if (storedKey != null) {
+                        keys.add(storedKey);
+                    }
+                    collided.put(hash, keys);
+                }
+                if (keys.add(key)) {
+                    fresh.add(song);
+                }
+            }
+            return fresh;
+        }
+
+        void saved(List<Song> batch) {
+            for (Song song : batch) {
+                idsByHash.putIfAbsent(hash(naturalKey(song)), song.getId());
+            }
+            unsaved.clear();
+        }
+    }
+
+    private static String naturalKey(Song song) {
+        return naturalKey(song.getTitle(), song.getArtist(), song.getMovieName());
+    }
+
+    // Normalized title/artist/movie, separated by a control character
+    private static String naturalKey(String title, String artist, String movieName) {
+        StringBuilder key = new StringBuilder();
+        for (String part : new String[]{title, artist, movieName}) {
+            if (part != null) {
+                key.append(WHITESPACE.matcher(part.trim().toLowerCase(Locale.ROOT)).replaceAll(" "));
+            }
+            key.append('\u001f');
+        }
+        return key.toString();
+    }
+
+    // 64-bit FNV-1a
+    private static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    // Column index for title, artist, audioSrc, image, genre, movieName; -1 when absent
+    private static int[] csvColumns(String header) {
+        List<String> names = parseCsvLine(header.startsWith("\uFEFF") ? header.substring(1) : header);
+        if (names == null) {
+            throw new IllegalArgumentException("Malformed CSV header");
+        }
+        String[] fields = {"title", "artist", "audiosrc", "image", "genre", "moviename"};
+        int[] columns = new int[fields.length];
+        for (int f = 0; f < fields.length; f++) {
+            columns[f] = -1;
+            for (int c = 0; c < names.size(); c++) {
+                String name = names.get(c).trim().toLowerCase(Locale.ROOT).replace("_", "").replace(" ", "");
+                if (name.equals(fields[f])) {
+                    columns[f] = c;
+                    break;
+                }
+            }
+        }
+        if (columns[0] < 0 || columns[2] < 0) {
+            throw new IllegalArgumentException("CSV header needs title and audioSrc columns");
+        }
+        return columns;
+    }
+
+    private static Song csvSong(String line, int[] columns) {
+        List<String> values = parseCsvLine(line);
+        if (values == null) {
+            throw new IllegalArgumentException("Malformed CSV line");
+        }
+        Song song = new Song();
+        song.setTitle(column(values, columns[0]));
+        song.setArtist(column(values, columns[1]));
+        song.setAudioSrc(column(values, columns[2]));
+        song.setImage(column(values, columns[3]));
+        song.setGenre(column(values, columns[4]));
+        song.setMovieName(column(values, columns[5]));
+        return song;
+    }
+
+    private static String column(List<String> values, int index) {
+        if (index < 0 || index >= values.size()) {
+            return null;
+        }
+        String value = values.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * RFC 4180 fields with "" escapes. Returns null for an unterminated quote;
+     * quoted fields may not span lines since chunks are split on newlines.
+     */
+    private static List<String> parseCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(field.toString());
+                field.setLength(0);
+            } else if (c != '\r') {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            return null;
+        }
+        values.add(field.toString());
+        return values;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
@@ -0,0 +1,491 @@
+package project.com.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Optional write-behind for like and playlist mutations. A mutation is
+ * journaled to a local append-only segment and acknowledged; the desired
+ * final state per (user, song) is coalesced in memory and flushed to the
+ * database in JDBC batches. Segments are deleted only after the mutations
+ * they hold are committed, and are replayed on startup.
+ */
+@Component
+public class LibraryWriteBehind {
+
+    private static final Logger log = LoggerFactory.getLogger(LibraryWriteBehind.class);
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    public enum Table {
+        LIKED("liked_songs"),
+        PLAYLIST("playlist_songs");
+
+        private final String tableName;
+
+        Table(String tableName) {
+            this.tableName = tableName;
+        }
+    }
+
+    /** One journal line; also the coalesced desired state for its key. */
+    public static class Mutation {
+        public Table table;
+        public String userEmail;
+        public Long songId;
+        public boolean present;
+        public String songTitle;
+        public String artist;
+        public String movieName;
+        public String imageUrl;
+        public String audioSrc;
+        public String createdAt;
+
+        public static Mutation of(Table table, String userEmail, Long songId, boolean present) {
+            Mutation mutation = new Mutation();
+            mutation.table = table;
+            mutation.userEmail = userEmail;
+            mutation.songId = songId;
+            mutation.present = present;
+            mutation.createdAt = LocalDateTime.now().toString();
+            return mutation;
+        }
+
+        public LocalDateTime createdAtOrNow() {
+            return createdAt != null ? LocalDateTime.parse(createdAt) : LocalDateTime.now();
+        }
+    }
+
+    private static final class Key {
+        private final Table table;
+        private final String userEmail;
+        private final long songId;
+
+        private Key(Mutation mutation) {
+            this.table = mutation.table;
+            this.userEmail = mutation.userEmail;
+            this.songId = mutation.songId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return table == other.table && songId == other.songId && userEmail.equals(other.userEmail);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(table, userEmail, songId);
+        }
+    }
+
+    private static final class Pending {
+        private Mutation latest;
+        // Database state before the first pending mutation; null when unknown (replayed)
+        private Boolean base;
+
+        private Pending(Mutation latest, Boolean base) {
+            this.latest = latest;
+            this.base = base;
+        }
+    }
+
+    @Value("${musicapp.library.write-behind:false}")
+    private boolean enabled;
+
+    @Value("${musicapp.library.reactive-writes:false}")
+    private boolean reactiveWrites;
+
+    @Value("${musicapp.library.journal-dir:data/library-journal}")
+    private String journalDir;
+
+    @Value("${musicapp.library.journal-fsync:true}")
+    private boolean fsync;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    // Guards the pending map and the current segment together, so a flush
+    // never deletes a segment holding a mutation it did not take
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private Map<Key, Pending> pending = new LinkedHashMap<>();
+    // Batch taken by a running flush, until it commits or is requeued
+    private Map<Key, Pending> inFlight = Map.of();
+    private Path directory;
+    private FileChannel segment;
+    private long segmentSeq;
+    private boolean segmentDirty;
+
+    private final AtomicLong recorded = new AtomicLong();
+    private final AtomicLong collapsed = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PostConstruct
+    void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        if (reactiveWrites) {
+            // Queued rows would be invisible to, and overwrite, the app that owns the tables
+            throw new IllegalStateException("musicapp.library.write-behind cannot be used with musicapp.library.reactive-writes");
+        }
+        directory = Paths.get(journalDir).toAbsolutePath().normalize();
+        Files.createDirectories(directory);
+
+        List<Path> segments = listSegments();
+        int replayed = 0;
+        for (Path file : segments) {
+            try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    try {
+                        enqueue(objectMapper.readValue(line, Mutation.class), null);
+                        replayed++;
+                    } catch (IOException e) {
+                        // A torn last line from a crash mid-append was never acknowledged
+                        log.warn("Skipping unreadable journal line in {}", file.getFileName());
+                    }
+                }
+            }
+            segmentSeq = Math.max(segmentSeq, segmentNumber(file));
+        }
+        openSegment(segmentSeq + 1);
+        if (replayed > 0) {
+            log.info("Replaying {} journaled library mutations from {} segments", replayed, segments.size());
+            segmentDirty = true;
+            flush();
+        } else {
+            deleteSegmentsThrough(segmentSeq - 1);
+        }
+    }
+
+    /**
+     * Journals the mutation and queues it for the next batch. wasPresent is
+     * the state the caller observed before applying it, used to drop
+     * like/unlike pairs that cancel out. Callers hold the per-user lock.
+     */
+    public void record(Mutation mutation, boolean wasPresent) {
+        byte[] line;
+        try {
+            line = (objectMapper.writeValueAsString(mutation) + "\n").getBytes(StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not encode library mutation", e);
+        }
+
+        FileChannel target;
+        lock.lock();
+        try {
+            target = segment;
+            ByteBuffer buffer = ByteBuffer.wrap(line);
+            while (buffer.hasRemaining()) {
+                target.write(buffer);
+            }
+            segmentDirty = true;
+            enqueue(mutation, wasPresent);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not append to library journal", e);
+        } finally {
+            lock.unlock();
+        }
+        recorded.incrementAndGet();
+
+        if (fsync) {
+            // Forced outside the lock so concurrent appends share one sync
+            try {
+                target.force(false);
+            } catch (ClosedChannelException e) {
+                // Rotated meanwhile; rotation forces the segment before closing it
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not sync library journal", e);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${musicapp.library.flush-ms:200}")
+    public void scheduledFlush() {
+        if (enabled) {
+            flush();
+        }
+    }
+
+    /** Writes everything recorded so far; returns once it is committed or has failed. */
+    public void flush() {
+        if (!enabled) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            Map<Key, Pending> batch;
+            long flushedSeq;
+            lock.lock();
+            try {
+                if (pending.isEmpty() && !segmentDirty) {
+                    return;
+                }
+                // An empty batch still rotates, dropping segments whose mutations all collapsed
+                batch = pending;
+                pending = new LinkedHashMap<>();
+                inFlight = batch;
+                flushedSeq = segmentSeq;
+                rotate();
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                if (!batch.isEmpty()) {
+                    writeBatch(batch);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Library write-behind flush of {} mutations failed, will retry", batch.size(), e);
+                requeue(batch);
+                return;
+            }
+            lock.lock();
+            try {
+                inFlight = Map.of();
+            } finally {
+                lock.unlock();
+            }
+            written.addAndGet(batch.size());
+            deleteSegmentsThrough(flushedSeq);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * The user's queued and in-flight changes to one table, latest per song,
+     * in the order they were recorded. Take it before reading the table: a
+     * change committed meanwhile is then in the rows, one still queued is here.
+     * This scans the queue, which holds about one flush interval of changes.
+     */
+    public Map<Long, Mutation> pendingFor(Table table, String userEmail) {
+        Map<Long, Mutation> changes = new LinkedHashMap<>();
+        if (!enabled) {
+            return changes;
+        }
+        lock.lock();
+        try {
+            collect(inFlight, table, userEmail, changes);
+            collect(pending, table, userEmail, changes);
+        } finally {
+            lock.unlock();
+        }
+        return changes;
+    }
+
+    private static void collect(Map<Key, Pending> source, Table table, String userEmail, Map<Long, Mutation> into) {
+        for (Pending p : source.values()) {
+            Mutation m = p.latest;
+            if (m.table == table && m.userEmail.equals(userEmail)) {
+                into.put(m.songId, m);
+            }
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        if (!enabled) {
+            return;
+        }
+        flush();
+        lock.lock();
+        try {
+            closeSegment();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getRecordedCount() {
+        return recorded.get();
+    }
+
+    public long getCollapsedCount() {
+        return collapsed.get();
+    }
+
+    public long getWrittenCount() {
+        return written.get();
+    }
+
+    public int getPendingCount() {
+        lock.lock();
+        try {
+            return pending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void enqueue(Mutation mutation, Boolean wasPresent) {
+        Key key = new Key(mutation);
+        Pending existing = pending.get(key);
+        if (existing == null) {
+            pending.put(key, new Pending(mutation, wasPresent));
+            return;
+        }
+        existing.latest = mutation;
+        if (existing.base != null && existing.base == mutation.present) {
+            // Back to what the database already holds
+            pending.remove(key);
+            collapsed.incrementAndGet();
+        }
+    }
+
+    private void requeue(Map<Key, Pending> failed) {
+        lock.lock();
+        try {
+            Map<Key, Pending> merged = new LinkedHashMap<>(failed);
+            for (Map.Entry<Key, Pending> entry : pending.entrySet()) {
+                Pending older = merged.get(entry.getKey());
+                Pending newer = entry.getValue();
+                if (older == null) {
+                    merged.put(entry.getKey(), newer);
+                    continue;
+                }
+                older.latest = newer.latest;
+                if (older.base != null && older.base == older.latest.present) {
+                    merged.remove(entry.getKey());
+                }
+            }
+            pending = merged;
+            inFlight = Map.of();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void writeBatch(Map<Key, Pending> batch) {
+        Map<Table, List<Object[]>> inserts = new LinkedHashMap<>();
+        Map<Table, List<Object[]>> deletes = new LinkedHashMap<>();
+        for (Pending p : batch.values()) {
+            Mutation m = p.latest;
+            if (m.present) {
+                LocalDateTime createdAt = m.createdAtOrNow();
+                inserts.computeIfAbsent(m.table, t -> new ArrayList<>()).add(new Object[]{
+                        m.userEmail, m.songId, m.songTitle, m.artist, m.movieName, m.imageUrl, m.audioSrc, createdAt});
+            } else {
+                deletes.computeIfAbsent(m.table, t -> new ArrayList<>()).add(new Object[]{m.userEmail, m.songId});
+            }
+        }
+
+        // One key per row after coalescing, so deletes and inserts commute; both are
+        // idempotent so a replayed segment can be applied again safely
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            deletes.forEach((table, args) -> jdbcTemplate.batchUpdate(
+                    "DELETE FROM " + table.tableName + " WHERE user_email = ? AND song_id = ?", args));
+            inserts.forEach((table, args) -> jdbcTemplate.batchUpdate(
+                    "INSERT IGNORE INTO " + table.tableName
+                            + " (user_email, song_id, song_title, artist, movie_name, image_url, audio_src, created_at)"
+                            + " VALUES (?, ?, ?, ?, ?, ?, ?, ?)", args));
+        });
+    }
+
+    private void rotate() {
+        closeSegment();
+        try {
+            openSegment(segmentSeq + 1);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not open library journal segment", e);
+        }
+    }
+
+    private void openSegment(long seq) throws IOException {
+        segmentSeq = seq;
+        segmentDirty = false;
+        segment = FileChannel.open(directory.resolve(SEGMENT_PREFIX + seq + SEGMENT_SUFFIX),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private void closeSegment() {
+        if (segment == null) {
+            return;
+        }
+        try {
+            segment.force(false);
+            segment.close();
+        } catch (IOException e) {
+            log.warn("Could not close library journal segment {}", segmentSeq, e);
+        }
+        segment = null;
+    }
+
+    private void deleteSegmentsThrough(long seq) {
+        try {
+            for (Path file : listSegments()) {
+                if (segmentNumber(file) <= seq) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException e) {
+            // Left behind segments are replayed idempotently on the next start
+            log.warn("Could not delete flushed library journal segments", e);
+        }
+    }
+
+    private List<Path> listSegments() throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : stream) {
+                segments.add(file);
+            }
+        }
+        segments.sort((a, b) -> Long.compare(segmentNumber(a), segmentNumber(b)));
+        return segments;
+    }
+
+    private static long segmentNumber(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+}
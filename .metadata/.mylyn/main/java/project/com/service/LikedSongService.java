@@ -1,38 +1,258 @@
 package project.com.service;
 
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import project.com.cache.LruCache;
+import project.com.cache.UserSongSet;
+import project.com.cache.VersionCounter;
 import project.com.model.LikedSong;
+import project.com.model.Song;
+import project.com.repository.DuplicateKeys;
 import project.com.repository.LikedSongRepository;
+import project.com.repository.SongRepository;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
+@Timed("musicapp.service")
 public class LikedSongService {
 
     @Autowired
     private LikedSongRepository likedSongRepository;
 
+    @Autowired
+    private LibraryWriteBehind writeBehind;
+
+    @Autowired
+    private SongRepository songRepository;
+
+    // user email -> ids of the songs they like, loaded lazily and kept in sync on toggle
+    private final LruCache<String, UserSongSet> likedIdsByUser;
+
+    private final VersionCounter libraryVersion = new VersionCounter();
+
+    // When set, rows hold only user/song/timestamp and details are joined from Song
+    @Value("${musicapp.library.normalized:false}")
+    private boolean normalized;
+
+    // Set when the reactive app owns library writes; rows then change behind this app's back
+    @Value("${musicapp.library.reactive-writes:false}")
+    private boolean reactiveWrites;
+
+    public LikedSongService(@Value("${musicapp.liked.cache-users:10000}") int cachedUsers) {
+        this.likedIdsByUser = new LruCache<>(cachedUsers, 0);
+    }
+
     public List<LikedSong> getLikedSongs(String userEmail) {
-        return likedSongRepository.findByUserEmail(userEmail);
+        // Read-your-writes: this user's queued changes are laid over the rows
+        Map<Long, LibraryWriteBehind.Mutation> pending =
+                writeBehind.pendingFor(LibraryWriteBehind.Table.LIKED, userEmail);
+        List<LikedSong> rows = normalized
+                ? likedSongRepository.findWithSongDetailsByUserEmail(userEmail)
+                : likedSongRepository.findByUserEmail(userEmail);
+        return pending.isEmpty() ? rows : mergePending(userEmail, rows, pending);
+    }
+
+    private List<LikedSong> mergePending(String userEmail, List<LikedSong> rows,
+                                         Map<Long, LibraryWriteBehind.Mutation> pending) {
+        List<LikedSong> merged = new ArrayList<>(rows.size() + pending.size());
+        Set<Long> listed = new HashSet<>();
+        for (LikedSong row : rows) {
+            LibraryWriteBehind.Mutation change = pending.get(row.getSongId());
+            if (change == null || change.present) {
+                merged.add(row);
+                listed.add(row.getSongId());
+            }
+        }
+        List<LibraryWriteBehind.Mutation> added = new ArrayList<>();
+        for (LibraryWriteBehind.Mutation change : pending.values()) {
+            if (change.present && !listed.contains(change.songId)) {
+                added.add(change);
+            }
+        }
+        Map<Long, Song> details = normalized ? songsById(added) : Map.of();
+        for (LibraryWriteBehind.Mutation change : added) {
+            if (!normalized) {
+                merged.add(new LikedSong(null, userEmail, change.songId, change.songTitle, change.artist,
+                        change.movieName, change.imageUrl, change.audioSrc, change.createdAtOrNow()));
+                continue;
+            }
+            Song song = details.get(change.songId);
+            if (song != null) {
+                // A song missing from the catalog is dropped, as the join would drop it
+                merged.add(new LikedSong(null, userEmail, change.songId, song.getTitle(), song.getArtist(),
+                        song.getMovieName(), song.getImage(), song.getAudioSrc(), change.createdAtOrNow()));
+            }
+        }
+        return merged;
+    }
+
+    private Map<Long, Song> songsById(List<LibraryWriteBehind.Mutation> changes) {
+        List<Long> ids = new ArrayList<>(changes.size());
+        for (LibraryWriteBehind.Mutation change : changes) {
+            ids.add(change.songId);
+        }
+        Map<Long, Song> songs = new HashMap<>();
+        for (Song song : songRepository.findAllById(ids)) {
+            songs.put(song.getId(), song);
+        }
+        return songs;
     }
 
     public boolean toggleLikeSong(String userEmail, LikedSong song) {
-        int exists = likedSongRepository.existsByUserEmailAndSongId(userEmail, song.getSongId());
-        
-        if (exists > 0) {
-            // Song is already liked, so unlike it
-            likedSongRepository.deleteByUserEmailAndSongId(userEmail, song.getSongId());
-            return false;
-        } else {
-            // Song is not liked, so like it
+        UserSongSet likedIds = likedIds(userEmail);
+        long songId = song.getSongId();
+
+        // Per-user lock keeps the cached set in step with the order the statements commit
+        likedIds.lock();
+        try {
+            if (writeBehind.isEnabled()) {
+                return toggleWriteBehind(userEmail, song, likedIds);
+            }
+            if (likedSongRepository.deleteByUserEmailAndSongId(userEmail, songId) > 0) {
+                // Song was liked, so the delete unliked it
+                likedIds.remove(songId);
+                libraryVersion.bump(userEmail);
+                return false;
+            }
+            // Song was not liked, so like it; the unique key rejects a concurrent duplicate
+            song.setId(null);
             song.setUserEmail(userEmail);
-            likedSongRepository.save(song);
+            if (normalized) {
+                song.clearSongDetails();
+            }
+            try {
+                likedSongRepository.saveAndFlush(song);
+            } catch (DataIntegrityViolationException e) {
+                if (!DuplicateKeys.isDuplicateKey(e)) {
+                    throw e;
+                }
+                // Another node inserted the same like first; the song is liked either way
+            }
+            likedIds.add(songId);
+            libraryVersion.bump(userEmail);
             return true;
+        } finally {
+            likedIds.unlock();
+        }
+    }
+
+    private boolean toggleWriteBehind(String userEmail, LikedSong song, UserSongSet likedIds) {
+        long songId = song.getSongId();
+        boolean wasLiked = likedIds.contains(songId);
+        LibraryWriteBehind.Mutation mutation =
+                LibraryWriteBehind.Mutation.of(LibraryWriteBehind.Table.LIKED, userEmail, songId, !wasLiked);
+        if (!wasLiked && !normalized) {
+            mutation.songTitle = song.getSongTitle();
+            mutation.artist = song.getArtist();
+            mutation.movieName = song.getMovieName();
+            mutation.imageUrl = song.getImageUrl();
+            mutation.audioSrc = song.getAudioSrc();
         }
+        writeBehind.record(mutation, wasLiked);
+        if (wasLiked) {
+            likedIds.remove(songId);
+        } else {
+            likedIds.add(songId);
+        }
+        libraryVersion.bump(userEmail);
+        return !wasLiked;
     }
 
     public boolean isSongLiked(String userEmail, Long songId) {
-        return likedSongRepository.existsByUserEmailAndSongId(userEmail, songId) > 0;
+        return likedIds(userEmail).contains(songId);
+    }
+
+    public Set<Long> getLikedSongIds(String userEmail, Collection<Long> songIds) {
+        Set<Long> liked = new HashSet<>();
+        if (songIds.isEmpty()) {
+            return liked;
+        }
+        UserSongSet likedIds = likedIds(userEmail);
+        likedIds.lock();
+        try {
+            for (Long songId : songIds) {
+                if (likedIds.contains(songId)) {
+                    liked.add(songId);
+                }
+            }
+        } finally {
+            likedIds.unlock();
+        }
+        return liked;
+    }
+
+    public int getLikedCount(String userEmail) {
+        if (reactiveWrites) {
+            // Nothing here can be cached while another app writes the rows; count rather than load the ids
+            return (int) likedSongRepository.countByUserEmail(userEmail);
+        }
+        return likedIds(userEmail).size();
+    }
+
+    /** Drops a song that left the catalog from every user's likes. */
+    public void removeSongEverywhere(long songId) {
+        // A queued like for this song would otherwise be written after the delete
+        writeBehind.flush();
+        List<String> users = likedSongRepository.findUserEmailsBySongId(songId);
+        likedSongRepository.deleteBySongId(songId);
+        for (String userEmail : users) {
+            UserSongSet cached = likedIdsByUser.get(userEmail);
+            if (cached != null) {
+                cached.remove(songId);
+            }
+            libraryVersion.bump(userEmail);
+        }
+    }
+
+    /** False when the reactive app owns library writes; this app then only reads. */
+    public boolean ownsWrites() {
+        return !reactiveWrites;
+    }
+
+    public long getLibraryVersion(String userEmail) {
+        return libraryVersion.version(userEmail);
+    }
+
+    private UserSongSet likedIds(String userEmail) {
+        if (reactiveWrites) {
+            // Another app writes the rows, so a cached set would go stale
+            return loadLikedIds(userEmail);
+        }
+        UserSongSet cached = likedIdsByUser.get(userEmail);
+        if (cached != null) {
+            return cached;
+        }
+        // Taken before the read, so a change committed meanwhile is in the rows instead
+        Map<Long, LibraryWriteBehind.Mutation> pending =
+                writeBehind.pendingFor(LibraryWriteBehind.Table.LIKED, userEmail);
+        UserSongSet loaded = loadLikedIds(userEmail);
+        for (LibraryWriteBehind.Mutation change : pending.values()) {
+            if (change.present) {
+                loaded.add(change.songId);
+            } else {
+                loaded.remove(change.songId);
+            }
+        }
+        // Another request may have loaded (and already updated) the set meanwhile
+        return likedIdsByUser.putIfAbsent(userEmail, loaded);
+    }
+
+    private UserSongSet loadLikedIds(String userEmail) {
+        List<Long> songIds = likedSongRepository.findSongIdsByUserEmail(userEmail);
+        UserSongSet loaded = new UserSongSet(songIds.size());
+        for (Long songId : songIds) {
+            loaded.add(songId);
+        }
+        return loaded;
     }
-} 
\ No newline at end of file
+}
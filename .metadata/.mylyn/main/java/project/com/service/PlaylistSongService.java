@@ -1,47 +1,370 @@
 package project.com.service;
 
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import project.com.cache.LruCache;
+import project.com.cache.UserSongSet;
+import project.com.cache.VersionCounter;
 import project.com.model.PlaylistSong;
+import project.com.model.Song;
+import project.com.repository.BulkInsertRepository;
+import project.com.repository.DuplicateKeys;
 import project.com.repository.PlaylistSongRepository;
+import project.com.repository.SongRepository;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
+@Timed("musicapp.service")
 public class PlaylistSongService {
 
     @Autowired
     private PlaylistSongRepository playlistSongRepository;
 
+    @Autowired
+    private LibraryWriteBehind writeBehind;
+
+    @Autowired
+    private BulkInsertRepository bulkInsertRepository;
+
+    @Autowired
+    private SongRepository songRepository;
+
+    // user email -> ids of the songs in their playlist. Only used with write-behind, where
+    // the table lags what was acknowledged; otherwise checks go to the table as before
+    private final LruCache<String, UserSongSet> playlistIdsByUser;
+
+    // user email -> playlist size as of a library version, for session info when the id sets are not used
+    private final LruCache<String, CachedCount> playlistCounts;
+
+    private final VersionCounter libraryVersion = new VersionCounter();
+
+    // When set, rows hold only user/song/timestamp and details are joined from Song
+    @Value("${musicapp.library.normalized:false}")
+    private boolean normalized;
+
+    // Set when the reactive app owns library writes; rows then change behind this app's back
+    @Value("${musicapp.library.reactive-writes:false}")
+    private boolean reactiveWrites;
+
+    public PlaylistSongService(@Value("${musicapp.playlist.cache-users:10000}") int cachedUsers) {
+        this.playlistIdsByUser = new LruCache<>(cachedUsers, 0);
+        this.playlistCounts = new LruCache<>(cachedUsers, 0);
+    }
+
     public List<PlaylistSong> getPlaylistSongs(String userEmail) {
-        return playlistSongRepository.findByUserEmail(userEmail);
+        // Read-your-writes: this user's queued changes are laid over the rows
+        Map<Long, LibraryWriteBehind.Mutation> pending =
+                writeBehind.pendingFor(LibraryWriteBehind.Table.PLAYLIST, userEmail);
+        List<PlaylistSong> rows = normalized
+                ? playlistSongRepository.findWithSongDetailsByUserEmail(userEmail)
+                : playlistSongRepository.findByUserEmail(userEmail);
+        return pending.isEmpty() ? rows : mergePending(userEmail, rows, pending);
+    }
+
+    private List<PlaylistSong> mergePending(String userEmail, List<PlaylistSong> rows,
+                                            Map<Long, LibraryWriteBehind.Mutation> pending) {
+        List<PlaylistSong> merged = new ArrayList<>(rows.size() + pending.size());
+        Set<Long> listed = new HashSet<>();
+        for (PlaylistSong row : rows) {
+            LibraryWriteBehind.Mutation change = pending.get(row.getSongId());
+            if (change == null || change.present) {
+                merged.add(row);
+                listed.add(row.getSongId());
+            }
+        }
+        List<LibraryWriteBehind.Mutation> added = new ArrayList<>();
+        for (LibraryWriteBehind.Mutation change : pending.values()) {
+            if (change.present && !listed.contains(change.songId)) {
+                added.add(change);
+            }
+        }
+        Map<Long, Song> details = normalized ? songsById(added) : Map.of();
+        for (LibraryWriteBehind.Mutation change : added) {
+            if (!normalized) {
+                merged.add(new PlaylistSong(null, userEmail, change.songId, change.songTitle, change.artist,
+                        change.movieName, change.imageUrl, change.audioSrc, change.createdAtOrNow()));
+                continue;
+            }
+            Song song = details.get(change.songId);
+            if (song != null) {
+                // A song missing from the catalog is dropped, as the join would drop it
+                merged.add(new PlaylistSong(null, userEmail, change.songId, song.getTitle(), song.getArtist(),
+                        song.getMovieName(), song.getImage(), song.getAudioSrc(), change.createdAtOrNow()));
+            }
+        }
+        return merged;
+    }
+
+    private Map<Long, Song> songsById(List<LibraryWriteBehind.Mutation> changes) {
+        List<Long> ids = new ArrayList<>(changes.size());
+        for (LibraryWriteBehind.Mutation change : changes) {
+            ids.add(change.songId);
+        }
+        Map<Long, Song> songs = new HashMap<>();
+        for (Song song : songRepository.findAllById(ids)) {
+            songs.put(song.getId(), song);
+        }
+        return songs;
     }
 
     public boolean addToPlaylist(String userEmail, PlaylistSong song) {
-        int exists = playlistSongRepository.existsByUserEmailAndSongId(userEmail, song.getSongId());
-        
-        if (exists > 0) {
-            // Song is already in playlist
-            return false;
-        } else {
-            // Add song to playlist
-            song.setUserEmail(userEmail);
-            playlistSongRepository.save(song);
+        if (!writeBehind.isEnabled()) {
+            return insert(userEmail, song);
+        }
+        UserSongSet playlistIds = playlistIds(userEmail);
+        long songId = song.getSongId();
+
+        playlistIds.lock();
+        try {
+            if (playlistIds.contains(songId)) {
+                return false;
+            }
+            LibraryWriteBehind.Mutation mutation =
+                    LibraryWriteBehind.Mutation.of(LibraryWriteBehind.Table.PLAYLIST, userEmail, songId, true);
+            if (!normalized) {
+                mutation.songTitle = song.getSongTitle();
+                mutation.artist = song.getArtist();
+                mutation.movieName = song.getMovieName();
+                mutation.imageUrl = song.getImageUrl();
+                mutation.audioSrc = song.getAudioSrc();
+            }
+            writeBehind.record(mutation, false);
+            playlistIds.add(songId);
+            libraryVersion.bump(userEmail);
             return true;
+        } finally {
+            playlistIds.unlock();
+        }
+    }
+
+    private boolean insert(String userEmail, PlaylistSong song) {
+        song.setId(null);
+        song.setUserEmail(userEmail);
+        if (normalized) {
+            song.clearSongDetails();
+        }
+        try {
+            playlistSongRepository.saveAndFlush(song);
+        } catch (DataIntegrityViolationException e) {
+            if (!DuplicateKeys.isDuplicateKey(e)) {
+                throw e;
+            }
+            // Song is already in playlist (unique user/song key)
+            return false;
+        }
+        libraryVersion.bump(userEmail);
+        return true;
+    }
+
+    /** Adds many songs in one batch; returns how many were not already in the playlist. */
+    public int addAllToPlaylist(String userEmail, List<PlaylistSong> songs) {
+        if (!writeBehind.isEnabled()) {
+            List<Long> ids = new ArrayList<>();
+            for (PlaylistSong song : songs) {
+                if (song.getSongId() != null) {
+                    ids.add(song.getSongId());
+                }
+            }
+            Set<Long> present = ids.isEmpty() ? Set.of() : new HashSet<>(playlistSongRepository.findSongIdsIn(userEmail, ids));
+            List<PlaylistSong> toAdd = distinctSongs(songs, present);
+            if (toAdd.isEmpty()) {
+                return 0;
+            }
+            int added = bulkInsertRepository.insertPlaylistSongs(userEmail, toAdd);
+            if (added > 0) {
+                libraryVersion.bump(userEmail);
+            }
+            return added;
+        }
+
+        UserSongSet playlistIds = playlistIds(userEmail);
+        playlistIds.lock();
+        try {
+            Set<Long> present = new HashSet<>();
+            for (PlaylistSong song : songs) {
+                if (song.getSongId() != null && playlistIds.contains(song.getSongId())) {
+                    present.add(song.getSongId());
+                }
+            }
+            List<PlaylistSong> toAdd = distinctSongs(songs, present);
+            if (toAdd.isEmpty()) {
+                return 0;
+            }
+            for (PlaylistSong song : toAdd) {
+                LibraryWriteBehind.Mutation mutation = LibraryWriteBehind.Mutation.of(
+                        LibraryWriteBehind.Table.PLAYLIST, userEmail, song.getSongId(), true);
+                mutation.songTitle = song.getSongTitle();
+                mutation.artist = song.getArtist();
+                mutation.movieName = song.getMovieName();
+                mutation.imageUrl = song.getImageUrl();
+                mutation.audioSrc = song.getAudioSrc();
+                writeBehind.record(mutation, false);
+                playlistIds.add(song.getSongId());
+            }
+            libraryVersion.bump(userEmail);
+            return toAdd.size();
+        } finally {
+            playlistIds.unlock();
         }
     }
 
+    // First occurrence of each song id not in skip, with details cleared when normalized
+    private List<PlaylistSong> distinctSongs(List<PlaylistSong> songs, Set<Long> skip) {
+        List<PlaylistSong> distinct = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+        for (PlaylistSong song : songs) {
+            if (song.getSongId() != null && !skip.contains(song.getSongId()) && seen.add(song.getSongId())) {
+                if (normalized) {
+                    song.clearSongDetails();
+                }
+                distinct.add(song);
+            }
+        }
+        return distinct;
+    }
+
     public boolean removeFromPlaylist(String userEmail, Long songId) {
-        int exists = playlistSongRepository.existsByUserEmailAndSongId(userEmail, songId);
-        
-        if (exists > 0) {
-            playlistSongRepository.deleteByUserEmailAndSongId(userEmail, songId);
+        if (!writeBehind.isEnabled()) {
+            if (playlistSongRepository.deleteByUserEmailAndSongId(userEmail, songId) == 0) {
+                return false;
+            }
+            libraryVersion.bump(userEmail);
             return true;
         }
-        return false;
+        UserSongSet playlistIds = playlistIds(userEmail);
+
+        playlistIds.lock();
+        try {
+            if (!playlistIds.contains(songId)) {
+                return false;
+            }
+            writeBehind.record(
+                    LibraryWriteBehind.Mutation.of(LibraryWriteBehind.Table.PLAYLIST, userEmail, songId, false), true);
+            playlistIds.remove(songId);
+            libraryVersion.bump(userEmail);
+            return true;
+        } finally {
+            playlistIds.unlock();
+        }
+    }
+
+    public int getPlaylistCount(String userEmail) {
+        if (writeBehind.isEnabled()) {
+            return playlistIds(userEmail).size();
+        }
+        if (reactiveWrites) {
+            // Another app writes the rows and no version here tracks them
+            return (int) playlistSongRepository.countByUserEmail(userEmail);
+        }
+        // Every write here bumps the user's version after it commits, so a count read at an
+        // unchanged version is still exact
+        long version = libraryVersion.version(userEmail);
+        CachedCount cached = playlistCounts.get(userEmail);
+        if (cached != null && cached.version == version) {
+            return cached.count;
+        }
+        int count = (int) playlistSongRepository.countByUserEmail(userEmail);
+        if (libraryVersion.version(userEmail) == version) {
+            playlistCounts.put(userEmail, new CachedCount(version, count));
+        }
+        return count;
+    }
+
+    /** Drops a song that left the catalog from every user's playlist. */
+    public void removeSongEverywhere(long songId) {
+        // A queued add for this song would otherwise be written after the delete
+        writeBehind.flush();
+        List<String> users = playlistSongRepository.findUserEmailsBySongId(songId);
+        playlistSongRepository.deleteBySongId(songId);
+        for (String userEmail : users) {
+            UserSongSet cached = playlistIdsByUser.get(userEmail);
+            if (cached != null) {
+                cached.remove(songId);
+            }
+            libraryVersion.bump(userEmail);
+        }
+    }
+
+    /** False when the reactive app owns library writes; this app then only reads. */
+    public boolean ownsWrites() {
+        return !reactiveWrites;
+    }
+
+    public long getLibraryVersion(String userEmail) {
+        return libraryVersion.version(userEmail);
     }
 
     public boolean isSongInPlaylist(String userEmail, Long songId) {
-        return playlistSongRepository.existsByUserEmailAndSongId(userEmail, songId) > 0;
+        if (!writeBehind.isEnabled()) {
+            return playlistSongRepository.existsByUserEmailAndSongId(userEmail, songId) > 0;
+        }
+        return playlistIds(userEmail).contains(songId);
+    }
+
+    public Set<Long> getPlaylistSongIds(String userEmail, Collection<Long> songIds) {
+        Set<Long> inPlaylist = new HashSet<>();
+        if (songIds.isEmpty()) {
+            return inPlaylist;
+        }
+        if (!writeBehind.isEnabled()) {
+            inPlaylist.addAll(playlistSongRepository.findSongIdsIn(userEmail, songIds));
+            return inPlaylist;
+        }
+        UserSongSet playlistIds = playlistIds(userEmail);
+        playlistIds.lock();
+        try {
+            for (Long songId : songIds) {
+                if (playlistIds.contains(songId)) {
+                    inPlaylist.add(songId);
+                }
+            }
+        } finally {
+            playlistIds.unlock();
+        }
+        return inPlaylist;
+    }
+
+    private UserSongSet playlistIds(String userEmail) {
+        UserSongSet cached = playlistIdsByUser.get(userEmail);
+        if (cached != null) {
+            return cached;
+        }
+        // Taken before the read, so a change committed meanwhile is in the rows instead
+        Map<Long, LibraryWriteBehind.Mutation> pending =
+                writeBehind.pendingFor(LibraryWriteBehind.Table.PLAYLIST, userEmail);
+        List<Long> songIds = playlistSongRepository.findSongIdsByUserEmail(userEmail);
+        UserSongSet loaded = new UserSongSet(songIds.size());
+        for (Long songId : songIds) {
+            loaded.add(songId);
+        }
+        for (LibraryWriteBehind.Mutation change : pending.values()) {
+            if (change.present) {
+                loaded.add(change.songId);
+            } else {
+                loaded.remove(change.songId);
+            }
+        }
+        // Another request may have loaded (and already updated) the set meanwhile
+        return playlistIdsByUser.putIfAbsent(userEmail, loaded);
+    }
+
+    private static final class CachedCount {
+        final long version;
+        final int count;
+
+        CachedCount(long version, int count) {
+            this.version = version;
+            this.count = count;
+        }
     }
-} 
\ No newline at end of file
+}
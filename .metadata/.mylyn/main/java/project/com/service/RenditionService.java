@@ -0,0 +1,247 @@
+package project.com.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import project.com.model.QualityTier;
+import project.com.model.RenditionInfo;
+import project.com.model.Song;
+import project.com.model.SongRendition;
+import project.com.repository.DuplicateKeys;
+import project.com.repository.SongRenditionRepository;
+import project.com.repository.SongRepository;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Produces lower-bitrate copies of songs in the background and records their
+ * sizes, so clients can pick a tier without probing the file. Without an
+ * encoder only the original is offered.
+ */
+@Service
+public class RenditionService {
+
+    private static final Logger log = LoggerFactory.getLogger(RenditionService.class);
+    private static final String RENDITION_DIR = "renditions";
+
+    @Autowired
+    private SongRenditionRepository renditionRepository;
+
+    @Autowired
+    private AudioStreamService audioStreamService;
+
+    @Autowired
+    private SongRepository songRepository;
+
+    // Path to an ffmpeg binary; blank disables the lower tiers
+    @Value("${musicapp.renditions.encoder:}")
+    private String encoder;
+
+    // A hung encoder is killed after this, so it cannot hold a worker forever
+    @Value("${musicapp.renditions.timeout-seconds:600}")
+    private long timeoutSeconds;
+
+    private final ThreadPoolExecutor workers;
+
+    // "songId:TIER" for renditions queued or being encoded
+    private final Map<String, Boolean> inFlight = new ConcurrentHashMap<>();
+
+    public RenditionService(@Value("${musicapp.renditions.workers:2}") int workerCount,
+                            @Value("${musicapp.renditions.queue:100}") int queueSize) {
+        AtomicInteger threadIds = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize), r -> {
+                    Thread thread = new Thread(r, "rendition-" + threadIds.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Lists every tier with its size, scheduling any renditions not produced yet.
+     */
+    public List<RenditionInfo> getRenditions(Song song) {
+        List<RenditionInfo> renditions = new ArrayList<>();
+        Optional<Path> original = audioStreamService.resolveAudio(song);
+        if (original.isEmpty()) {
+            return renditions;
+        }
+        Long originalSize = sizeOf(original.get());
+        renditions.add(new RenditionInfo(QualityTier.HIGH, QualityTier.HIGH.getBitrateKbps(), originalSize, originalSize != null));
+
+        List<SongRendition> stored = renditionRepository.findBySongId(song.getId());
+        for (QualityTier tier : QualityTier.values()) {
+            if (tier.isOriginal()) {
+                continue;
+            }
+            Optional<SongRendition> done = stored.stream().filter(r -> r.getTier() == tier).findFirst();
+            if (done.isPresent()) {
+                renditions.add(new RenditionInfo(tier, tier.getBitrateKbps(), done.get().getSizeBytes(), true));
+            } else if (isEncoderConfigured()) {
+                schedule(song.getId(), original.get(), tier);
+                renditions.add(new RenditionInfo(tier, tier.getBitrateKbps(), null, false));
+            }
+        }
+        return renditions;
+    }
+
+    /**
+     * File to serve for the tier, falling back to the original while the
+     * rendition is still being produced.
+     */
+    public Optional<Path> resolve(Song song, QualityTier tier) {
+        Optional<Path> original = audioStreamService.resolveAudio(song);
+        if (tier.isOriginal() || original.isEmpty()) {
+            return original;
+        }
+        Optional<Path> rendition = renditionRepository.findBySongIdAndTier(song.getId(), tier)
+                .flatMap(r -> audioStreamService.resolveMedia(r.getPath()));
+        if (rendition.isPresent()) {
+            return rendition;
+        }
+        if (isEncoderConfigured()) {
+            schedule(song.getId(), original.get(), tier);
+        }
+        return original;
+    }
+
+    public void deleteRenditions(Long songId) {
+        for (SongRendition rendition : renditionRepository.findBySongId(songId)) {
+            audioStreamService.resolveMedia(rendition.getPath()).ifPresent(path -> {
+                try {
+                    Files.deleteIfExists(path);
+                } catch (IOException e) {
+                    log.warn("Could not delete rendition {}", path, e);
+                }
+            });
+        }
+        renditionRepository.deleteBySongId(songId);
+    }
+
+    public boolean isEncoderConfigured() {
+        return encoder != null && !encoder.isBlank();
+    }
+
+    public int getQueuedCount() {
+        return workers.getQueue().size();
+    }
+
+    public int getActiveCount() {
+        return workers.getActiveCount();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    private void schedule(Long songId, Path source, QualityTier tier) {
+        String key = songId + ":" + tier;
+        if (inFlight.putIfAbsent(key, Boolean.TRUE) != null) {
+            return;
+        }
+        try {
+            workers.execute(() -> {
+                try {
+                    encode(songId, source, tier);
+                } catch (Exception e) {
+                    log.warn("Rendition {} failed", key, e);
+                } finally {
+                    inFlight.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Queue full; the next request for this song will try again
+            inFlight.remove(key);
+        }
+    }
+
+    private void encode(Long songId, Path source, QualityTier tier) throws IOException, InterruptedException {
+        Path dir = audioStreamService.getMediaDir().resolve(RENDITION_DIR);
+        Files.createDirectories(dir);
+        String fileName = songId + "-" + tier.name().toLowerCase() + ".mp3";
+        Path target = dir.resolve(fileName);
+        Path partial = dir.resolve(fileName + ".part");
+
+        Process process = new ProcessBuilder(encoder, "-nostdin", "-y", "-loglevel", "error",
+                "-i", source.toString(), "-vn", "-codec:a", "libmp3lame",
+                "-b:a", tier.getBitrateKbps() + "k", "-f", "mp3", partial.toString())
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        boolean exited = false;
+        try {
+            exited = process.waitFor(timeoutSeconds, TimeUnit.SECONDS);
+        } finally {
+            if (!exited) {
+                // Timed out, or interrupted by shutdown
+                process.destroyForcibly();
+            }
+        }
+        if (!exited || process.exitValue() != 0) {
+            Files.deleteIfExists(partial);
+            throw new IOException(exited ? "Encoder exited with " + process.exitValue()
+                    : "Encoder timed out after " + timeoutSeconds + "s");
+        }
+        if (!isCurrentSource(songId, source)) {
+            // The song's audio changed while encoding; this copy is of the old file
+            Files.deleteIfExists(partial);
+            return;
+        }
+        Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        SongRendition rendition = new SongRendition();
+        rendition.setSongId(songId);
+        rendition.setTier(tier);
+        rendition.setBitrateKbps(tier.getBitrateKbps());
+        rendition.setSizeBytes(Files.size(target));
+        rendition.setPath(RENDITION_DIR + "/" + fileName);
+        try {
+            rendition = renditionRepository.save(rendition);
+        } catch (DataIntegrityViolationException e) {
+            if (!DuplicateKeys.isDuplicateKey(e)) {
+                throw e;
+            }
+            // Another node recorded it first
+            return;
+        }
+        if (!isCurrentSource(songId, source)) {
+            // The audio changed between the check and the save, and its deleteRenditions may
+            // have run before the row existed; undo it here so the old copy is never served
+            renditionRepository.delete(rendition);
+            Files.deleteIfExists(target);
+        }
+    }
+
+    private boolean isCurrentSource(Long songId, Path source) {
+        return songRepository.findById(songId)
+                .flatMap(audioStreamService::resolveAudio)
+                .map(source::equals)
+                .orElse(false);
+    }
+
+    private static Long sizeOf(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
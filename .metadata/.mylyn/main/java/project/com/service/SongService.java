@@ -1,32 +1,267 @@
 package project.com.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import project.com.cache.TinyLfuCache;
+import project.com.cache.VersionCounter;
+import project.com.model.CatalogPage;
+import project.com.model.SearchResult;
 import project.com.model.Song;
+import project.com.model.SongSummary;
+import project.com.repository.BulkInsertRepository;
 import project.com.repository.SongRepository;
+import project.com.search.SongFacetIndex;
+import project.com.search.SongSearchIndex;
+import project.com.search.SongSuggestService;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Service
+@Timed("musicapp.service")
 public class SongService {
 
+    private static final String CURSOR_PREFIX = "song:";
+    private static final int EXPORT_FLUSH_INTERVAL = 500;
+    private static final int MAX_SEARCH_PAGE = 50;
+
     @Autowired
     private SongRepository songRepository;
 
+    @Autowired
+    private BulkInsertRepository bulkInsertRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private SongSearchIndex searchIndex;
+
+    @Autowired
+    private SongFacetIndex facetIndex;
+
+    @Autowired
+    private SongSuggestService suggestService;
+
+    @Autowired
+    private LikedSongService likedSongService;
+
+    @Autowired
+    private PlaylistSongService playlistSongService;
+
+    @Autowired
+    private RenditionService renditionService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${musicapp.songs.unpaged-limit:1000}")
+    private int unpagedLimit;
+
+    @Value("${musicapp.songs.page-size:50}")
+    private int defaultPageSize;
+
+    @Value("${musicapp.songs.max-page-size:200}")
+    private int maxPageSize;
+
+    private final VersionCounter catalogVersion = new VersionCounter();
+
+    private final TinyLfuCache<Long, Song> songCache;
+
+    // "cursor|size" -> page; cleared on every catalog write
+    private final TinyLfuCache<String, CatalogPage> pageCache;
+
+    public SongService(@Value("${musicapp.songs.cache-size:10000}") int songCacheSize,
+                       @Value("${musicapp.songs.page-cache-size:1000}") int pageCacheSize,
+                       @Value("${musicapp.songs.cache-ttl-seconds:600}") long ttlSeconds) {
+        this.songCache = new TinyLfuCache<>(songCacheSize, ttlSeconds * 1000);
+        this.pageCache = new TinyLfuCache<>(pageCacheSize, ttlSeconds * 1000);
+    }
+
     public List<Song> getAllSongs() {
-        return songRepository.findAll();
+        // Legacy unpaged listing, capped so it can no longer load the whole table
+        return songRepository.findFirstSongs(PageRequest.of(0, unpagedLimit));
+    }
+
+    public CatalogPage getCatalogPage(String cursor, Integer size) {
+        int pageSize = size == null ? defaultPageSize : Math.max(1, Math.min(size, maxPageSize));
+        long afterId = decodeCursor(cursor);
+        String key = afterId + "|" + pageSize;
+        CatalogPage cached = pageCache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        // Taken before the query, so a page read before a concurrent write is not cached
+        long stamp = pageCache.stamp(key);
+
+        // Fetch one extra row to learn whether another page exists
+        List<SongSummary> rows = songRepository.findSummariesAfter(afterId, PageRequest.of(0, pageSize + 1));
+        CatalogPage page;
+        if (rows.size() <= pageSize) {
+            page = new CatalogPage(List.copyOf(rows), null);
+        } else {
+            List<SongSummary> songs = List.copyOf(rows.subList(0, pageSize));
+            page = new CatalogPage(songs, encodeCursor(songs.get(pageSize - 1).getId()));
+        }
+        pageCache.putIfUnchanged(key, page, stamp);
+        return page;
+    }
+
+    @Transactional(readOnly = true)
+    public void exportSongs(OutputStream out) throws IOException {
+        try (Stream<Song> songs = songRepository.streamAll();
+             // Flushing after every value would defeat EXPORT_FLUSH_INTERVAL
+             SequenceWriter writer = objectMapper.writer()
+                     .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                     .withRootValueSeparator("\n")
+                     .writeValues(out)) {
+            int written = 0;
+            for (Song song : (Iterable<Song>) songs::iterator) {
+                writer.write(song);
+                // Detach so the persistence context does not grow with the catalog
+                entityManager.detach(song);
+                if (++written % EXPORT_FLUSH_INTERVAL == 0) {
+                    writer.flush();
+                }
+            }
+            // The trailing newline bypasses the generator, so drain its buffer first
+            writer.flush();
+            out.write('\n');
+        }
+    }
+
+    public SearchResult searchSongs(String query, int page, Integer size) {
+        int pageSize = size == null ? defaultPageSize : Math.max(1, Math.min(size, maxPageSize));
+        if (page > MAX_SEARCH_PAGE) {
+            // Rewriting it to the last page would repeat that page to a client paging forward
+            throw new IllegalArgumentException("page must be at most " + MAX_SEARCH_PAGE);
+        }
+        return searchIndex.search(query, Math.max(0, page), pageSize);
+    }
+
+    public List<SongSummary> browseSongs(SongFacetIndex.Facet facet, String value, int page, Integer size) {
+        int pageSize = size == null ? maxPageSize : Math.max(1, Math.min(size, maxPageSize));
+        long[] ids = facetIndex.find(facet, value, Math.max(0, page), pageSize);
+        List<SongSummary> songs = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            SongSummary song = searchIndex.getDocument(id);
+            if (song != null) {
+                songs.add(song);
+            }
+        }
+        return songs;
     }
 
     public Optional<Song> getSongById(Long id) {
-        return songRepository.findById(id);
+        // Callers get their own copy; the cached song is never handed out
+        Song cached = songCache.get(id);
+        if (cached != null) {
+            return Optional.of(cached.copy());
+        }
+        long stamp = songCache.stamp(id);
+        Optional<Song> song = songRepository.findById(id);
+        song.ifPresent(s -> songCache.putIfUnchanged(id, s.copy(), stamp));
+        return song.map(Song::copy);
     }
 
     public Song saveSong(Song song) {
-        return songRepository.save(song);
+        String previousAudio = song.getId() == null ? null
+                : songRepository.findById(song.getId()).map(Song::getAudioSrc).orElse(null);
+        Song saved = songRepository.save(song);
+        if (previousAudio != null && !previousAudio.equals(saved.getAudioSrc())) {
+            // Renditions were encoded from the old file
+            renditionService.deleteRenditions(saved.getId());
+        }
+        songCache.invalidate(saved.getId());
+        pageCache.clear();
+        SongSummary summary = SongSummary.of(saved);
+        searchIndex.index(summary);
+        facetIndex.index(summary);
+        suggestService.catalogChanged();
+        catalogVersion.bump();
+        return saved;
+    }
+
+    /** Batch insert for catalog loads; indexes and caches are updated once for the whole list. */
+    public List<Song> saveSongs(List<Song> songs) {
+        if (songs.isEmpty()) {
+            return songs;
+        }
+        for (Song song : songs) {
+            song.setId(null);
+        }
+        bulkInsertRepository.insertSongs(songs);
+        pageCache.clear();
+        List<SongSummary> summaries = new ArrayList<>(songs.size());
+        for (Song song : songs) {
+            SongSummary summary = SongSummary.of(song);
+            searchIndex.index(summary);
+            summaries.add(summary);
+        }
+        facetIndex.indexAll(summaries);
+        suggestService.catalogChanged();
+        catalogVersion.bump();
+        return songs;
     }
 
     public void deleteSong(Long id) {
         songRepository.deleteById(id);
+        // Normalized lists join Song, so rows left behind would vanish from lists but not from counts
+        likedSongService.removeSongEverywhere(id);
+        playlistSongService.removeSongEverywhere(id);
+        songCache.invalidate(id);
+        pageCache.clear();
+        searchIndex.remove(id);
+        facetIndex.remove(id);
+        suggestService.catalogChanged();
+        catalogVersion.bump();
+    }
+
+    public long getCatalogVersion() {
+        return catalogVersion.version();
+    }
+
+    public TinyLfuCache<Long, Song> getSongCache() {
+        return songCache;
+    }
+
+    public TinyLfuCache<String, CatalogPage> getPageCache() {
+        return pageCache;
+    }
+
+    private static String encodeCursor(Long lastId) {
+        byte[] raw = (CURSOR_PREFIX + lastId).getBytes(StandardCharsets.UTF_8);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
+    }
+
+    private static long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return 0L;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!raw.startsWith(CURSOR_PREFIX)) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return Long.parseLong(raw.substring(CURSOR_PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            // NumberFormatException and bad Base64 both land here
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
     }
 }
@@ -0,0 +1,164 @@
+package project.reactive;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import io.r2dbc.spi.R2dbcException;
+import io.r2dbc.spi.Readable;
+import project.com.model.LikedSong;
+import project.com.model.PlaylistSong;
+import project.com.repository.DuplicateKeys;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Non-blocking access to liked_songs or playlist_songs. Both tables share
+ * one layout, so one instance is created per table.
+ *
+ * Follows musicapp.library.normalized like the servlet services: rows then
+ * hold only user, song and timestamp, and details are joined from song.
+ */
+public class ReactiveLibraryRepository {
+
+    // Rows written while normalized have no details of their own and take them from the join
+    private static final String COLUMNS = "t.id, t.user_email, t.song_id, COALESCE(t.song_title, s.title) AS song_title,"
+            + " COALESCE(t.artist, s.artist) AS artist, COALESCE(t.movie_name, s.movie_name) AS movie_name,"
+            + " COALESCE(t.image_url, s.image) AS image_url, COALESCE(t.audio_src, s.audio_src) AS audio_src, t.created_at";
+    // Same aliases as COLUMNS, so one row mapper serves both layouts
+    private static final String JOINED_COLUMNS = "t.id, t.user_email, t.song_id, s.title AS song_title, s.artist,"
+            + " s.movie_name, s.image AS image_url, s.audio_src, t.created_at";
+
+    private final DatabaseClient client;
+    private final String table;
+    private final boolean normalized;
+
+    public ReactiveLibraryRepository(DatabaseClient client, String table, boolean normalized) {
+        this.client = client;
+        this.table = table;
+        this.normalized = normalized;
+    }
+
+    public Flux<LikedSong> findLikedByUserEmail(String userEmail) {
+        return client.sql(selectByUser())
+                .bind("userEmail", userEmail)
+                .map(ReactiveLibraryRepository::toLikedSong)
+                .all();
+    }
+
+    public Flux<PlaylistSong> findPlaylistByUserEmail(String userEmail) {
+        return client.sql(selectByUser())
+                .bind("userEmail", userEmail)
+                .map(ReactiveLibraryRepository::toPlaylistSong)
+                .all();
+    }
+
+    public Mono<Boolean> exists(String userEmail, Long songId) {
+        return client.sql("SELECT 1 FROM " + table + " WHERE user_email = :userEmail AND song_id = :songId LIMIT 1")
+                .bind("userEmail", userEmail)
+                .bind("songId", songId)
+                .map(row -> Boolean.TRUE)
+                .first()
+                .defaultIfEmpty(Boolean.FALSE);
+    }
+
+    public Mono<Set<Long>> findSongIdsIn(String userEmail, Collection<Long> songIds) {
+        return client.sql("SELECT song_id FROM " + table + " WHERE user_email = :userEmail AND song_id IN (:songIds)")
+                .bind("userEmail", userEmail)
+                .bind("songIds", songIds)
+                .map(row -> row.get("song_id", Long.class))
+                .all()
+                .collect(Collectors.toSet());
+    }
+
+    public Mono<Long> delete(String userEmail, Long songId) {
+        return client.sql("DELETE FROM " + table + " WHERE user_email = :userEmail AND song_id = :songId")
+                .bind("userEmail", userEmail)
+                .bind("songId", songId)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    /**
+     * Inserts the row; emits false when the unique (user_email, song_id) key
+     * says it is already there. Details are dropped when normalized.
+     */
+    public Mono<Boolean> insert(String userEmail, Long songId, String songTitle, String artist,
+                                String movieName, String imageUrl, String audioSrc) {
+        if (normalized) {
+            return ignoreDuplicate(client.sql("INSERT INTO " + table + " (user_email, song_id, created_at)"
+                            + " VALUES (:userEmail, :songId, :createdAt)")
+                    .bind("userEmail", userEmail)
+                    .bind("songId", songId)
+                    .bind("createdAt", LocalDateTime.now()));
+        }
+        DatabaseClient.GenericExecuteSpec spec = client.sql("INSERT INTO " + table
+                        + " (user_email, song_id, song_title, artist, movie_name, image_url, audio_src, created_at)"
+                        + " VALUES (:userEmail, :songId, :songTitle, :artist, :movieName, :imageUrl, :audioSrc, :createdAt)")
+                .bind("userEmail", userEmail)
+                .bind("songId", songId)
+                .bind("createdAt", LocalDateTime.now());
+        spec = bindNullable(spec, "songTitle", songTitle);
+        spec = bindNullable(spec, "artist", artist);
+        spec = bindNullable(spec, "movieName", movieName);
+        spec = bindNullable(spec, "imageUrl", imageUrl);
+        spec = bindNullable(spec, "audioSrc", audioSrc);
+        return ignoreDuplicate(spec);
+    }
+
+    private String selectByUser() {
+        if (normalized) {
+            // Inner join, as in the servlet repositories; rows of deleted songs are removed with the song
+            return "SELECT " + JOINED_COLUMNS + " FROM " + table + " t JOIN song s ON s.id = t.song_id"
+                    + " WHERE t.user_email = :userEmail ORDER BY t.created_at";
+        }
+        // The join is only probed for rows without details; those whose song is gone are left out
+        return "SELECT " + COLUMNS + " FROM " + table + " t LEFT JOIN song s ON t.song_title IS NULL AND s.id = t.song_id"
+                + " WHERE t.user_email = :userEmail AND (t.song_title IS NOT NULL OR s.id IS NOT NULL)";
+    }
+
+    private static Mono<Boolean> ignoreDuplicate(DatabaseClient.GenericExecuteSpec spec) {
+        return spec.fetch()
+                .rowsUpdated()
+                .map(rows -> rows > 0)
+                // Only the unique key means "already there"; NOT NULL, oversized values etc. propagate
+                .onErrorResume(DataIntegrityViolationException.class,
+                        e -> isDuplicateKey(e) ? Mono.just(Boolean.FALSE) : Mono.error(e));
+    }
+
+    private static boolean isDuplicateKey(DataIntegrityViolationException e) {
+        if (DuplicateKeys.isDuplicateKey(e)) {
+            return true;
+        }
+        for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof R2dbcException r2dbc
+                    && DuplicateKeys.isDuplicateKey(r2dbc.getErrorCode(), r2dbc.getSqlState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bindNullable(DatabaseClient.GenericExecuteSpec spec,
+                                                                  String name, String value) {
+        return value == null ? spec.bindNull(name, String.class) : spec.bind(name, value);
+    }
+
+    private static LikedSong toLikedSong(Readable row) {
+        return new LikedSong(row.get("id", Long.class), row.get("user_email", String.class),
+                row.get("song_id", Long.class), row.get("song_title", String.class), row.get("artist", String.class),
+                row.get("movie_name", String.class), row.get("image_url", String.class),
+                row.get("audio_src", String.class), row.get("created_at", LocalDateTime.class));
+    }
+
+    private static PlaylistSong toPlaylistSong(Readable row) {
+        return new PlaylistSong(row.get("id", Long.class), row.get("user_email", String.class),
+                row.get("song_id", Long.class), row.get("song_title", String.class), row.get("artist", String.class),
+                row.get("movie_name", String.class), row.get("image_url", String.class),
+                row.get("audio_src", String.class), row.get("created_at", LocalDateTime.class));
+    }
+}
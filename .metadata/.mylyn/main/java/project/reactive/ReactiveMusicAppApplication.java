@@ -0,0 +1,37 @@
+package project.reactive;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.annotation.Import;
+
+import project.com.model.JWTManager;
+
+/**
+ * Optional WebFlux + R2DBC deployment of the liked-songs and playlist APIs.
+ * Serves the same URLs as the servlet controllers in project.com.controller
+ * against the same tables, so a proxy can route /api/liked-songs and
+ * /api/playlist-songs here. Reads reactive.properties instead of
+ * application.properties.
+ *
+ * Only one of the two apps writes library rows, chosen by
+ * musicapp.library.reactive-writes in both property files. The servlet app
+ * caches per-user ids and version counters that only its own writes update,
+ * so when this app owns writes the servlet app stops caching and refuses
+ * writes, and when it does not this app refuses them. Library list ETags are
+ * then derived from the rows, identically in both apps.
+ */
+@SpringBootApplication(exclude = {DataSourceAutoConfiguration.class, HibernateJpaAutoConfiguration.class})
+@Import(JWTManager.class)
+public class ReactiveMusicAppApplication {
+
+	public static void main(String[] args) {
+		new SpringApplicationBuilder(ReactiveMusicAppApplication.class)
+				.web(WebApplicationType.REACTIVE)
+				.properties("spring.config.name=reactive")
+				.run(args);
+	}
+
+}
@@ -0,0 +1,117 @@
+package project.reactive;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import project.com.controller.ConditionalRequests;
+import project.com.model.JWTManager;
+import project.com.model.PlaylistSong;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/playlist-songs")
+@CrossOrigin(origins = "*")
+public class ReactivePlaylistSongController {
+
+    private static final int MAX_BATCH_IDS = 500;
+    private static final String READ_ONLY = "Library changes are handled by the main application";
+
+    @Autowired
+    @Qualifier("playlistSongRepository")
+    private ReactiveLibraryRepository playlistSongRepository;
+
+    @Autowired
+    private JWTManager jwtManager;
+
+    // Only one app may write the library tables; the servlet app unless this is set
+    @Value("${musicapp.library.reactive-writes:false}")
+    private boolean reactiveWrites;
+
+    @GetMapping
+    public Mono<ResponseEntity<?>> getPlaylistSongs(
+            @RequestHeader("Authorization") String token,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String userEmail = jwtManager.validateToken(token);
+        if (userEmail.equals("401")) {
+            return Mono.just(ResponseEntity.status(401).body("Invalid or expired token"));
+        }
+        // Tagged from the rows, the same way the servlet app tags lists it does not write
+        return playlistSongRepository.findPlaylistByUserEmail(userEmail)
+                .collectList()
+                .map(rows -> {
+                    String etag = ConditionalRequests.playlistEtag(rows);
+                    if (ConditionalRequests.notModified(ifNoneMatch, etag)) {
+                        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+                    }
+                    return ResponseEntity.ok().eTag(etag).header(HttpHeaders.CACHE_CONTROL, "no-cache").body(rows);
+                });
+    }
+
+    @PostMapping("/add")
+    public Mono<ResponseEntity<?>> addToPlaylist(
+            @RequestHeader("Authorization") String token,
+            @RequestBody PlaylistSong song) {
+        String userEmail = jwtManager.validateToken(token);
+        if (userEmail.equals("401")) {
+            return Mono.just(ResponseEntity.status(401).body("Invalid or expired token"));
+        }
+        if (!reactiveWrites) {
+            return Mono.just(ResponseEntity.status(HttpStatus.CONFLICT).body(READ_ONLY));
+        }
+        return playlistSongRepository.insert(userEmail, song.getSongId(), song.getSongTitle(), song.getArtist(),
+                        song.getMovieName(), song.getImageUrl(), song.getAudioSrc())
+                .map(added -> ResponseEntity.ok(Map.of("added", added)));
+    }
+
+    @DeleteMapping("/remove/{songId}")
+    public Mono<ResponseEntity<?>> removeFromPlaylist(
+            @RequestHeader("Authorization") String token,
+            @PathVariable Long songId) {
+        String userEmail = jwtManager.validateToken(token);
+        if (userEmail.equals("401")) {
+            return Mono.just(ResponseEntity.status(401).body("Invalid or expired token"));
+        }
+        if (!reactiveWrites) {
+            return Mono.just(ResponseEntity.status(HttpStatus.CONFLICT).body(READ_ONLY));
+        }
+        return playlistSongRepository.delete(userEmail, songId)
+                .map(deleted -> ResponseEntity.ok(Map.of("removed", deleted > 0)));
+    }
+
+    @GetMapping("/check/{songId}")
+    public Mono<ResponseEntity<?>> isSongInPlaylist(
+            @RequestHeader("Authorization") String token,
+            @PathVariable Long songId) {
+        String userEmail = jwtManager.validateToken(token);
+        if (userEmail.equals("401")) {
+            return Mono.just(ResponseEntity.status(401).body("Invalid or expired token"));
+        }
+        return playlistSongRepository.exists(userEmail, songId)
+                .map(inPlaylist -> ResponseEntity.ok(Map.of("inPlaylist", inPlaylist)));
+    }
+
+    @GetMapping("/check")
+    public Mono<ResponseEntity<?>> checkSongs(
+            @RequestHeader("Authorization") String token,
+            @RequestParam List<Long> ids) {
+        String userEmail = jwtManager.validateToken(token);
+        if (userEmail.equals("401")) {
+            return Mono.just(ResponseEntity.status(401).body("Invalid or expired token"));
+        }
+        if (ids.size() > MAX_BATCH_IDS) {
+            return Mono.just(ResponseEntity.badRequest().body("At most " + MAX_BATCH_IDS + " song ids per request"));
+        }
+        if (ids.isEmpty()) {
+            return Mono.just(ResponseEntity.ok(Map.of("inPlaylist", List.of())));
+        }
+        return playlistSongRepository.findSongIdsIn(userEmail, ids)
+                .map(matched -> ResponseEntity.ok(Map.of("inPlaylist", matched)));
+    }
+}
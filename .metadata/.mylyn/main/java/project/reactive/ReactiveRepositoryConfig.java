@@ -0,0 +1,24 @@
+package project.reactive;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+@Configuration
+public class ReactiveRepositoryConfig {
+
+    // Must match the servlet app's setting; both read and write the same tables
+    @Value("${musicapp.library.normalized:false}")
+    private boolean normalized;
+
+    @Bean
+    public ReactiveLibraryRepository likedSongRepository(DatabaseClient client) {
+        return new ReactiveLibraryRepository(client, "liked_songs", normalized);
+    }
+
+    @Bean
+    public ReactiveLibraryRepository playlistSongRepository(DatabaseClient client) {
+        return new ReactiveLibraryRepository(client, "playlist_songs", normalized);
+    }
+}
@@ -0,0 +1,139 @@
+package project.com.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.ActiveProfiles;
+import project.com.model.LikedSong;
+import project.com.model.PlaylistSong;
+import project.com.repository.DuplicateKeys;
+import project.com.repository.LikedSongRepository;
+import project.com.repository.PlaylistSongRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Parallel toggles and adds on one (user, song) pair must never leave more
+ * than one row, whether they race through the service or straight into the
+ * table as two nodes would.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class LibraryConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final int ROUNDS = 25;
+    private static final long SONG_ID = 42L;
+
+    @Autowired
+    private LikedSongService likedSongService;
+
+    @Autowired
+    private PlaylistSongService playlistSongService;
+
+    @Autowired
+    private LikedSongRepository likedSongRepository;
+
+    @Autowired
+    private PlaylistSongRepository playlistSongRepository;
+
+    private String user;
+
+    @BeforeEach
+    void newUser() {
+        // A fresh user per test keeps the cached id sets out of each other's way
+        user = "race-" + System.nanoTime() + "@example.com";
+    }
+
+    @Test
+    void parallelTogglesLeaveAtMostOneRow() throws Exception {
+        int toggles = THREADS * ROUNDS + 1;
+        List<Boolean> results = runInParallel(toggles, () -> likedSongService.toggleLikeSong(user, likedSong()));
+
+        long likedCount = results.stream().filter(Boolean::booleanValue).count();
+        int rows = likedSongRepository.findSongIdsByUserEmail(user).size();
+        assertTrue(rows <= 1, "duplicate liked rows: " + rows);
+        // An odd number of toggles from "not liked" ends liked
+        assertEquals(1, rows);
+        assertEquals(toggles / 2 + 1, likedCount);
+        assertEquals(rows == 1, likedSongService.isSongLiked(user, SONG_ID));
+    }
+
+    @Test
+    void parallelPlaylistAddsInsertOnce() throws Exception {
+        List<Boolean> results = runInParallel(THREADS, () -> playlistSongService.addToPlaylist(user, playlistSong()));
+
+        assertEquals(1, results.stream().filter(Boolean::booleanValue).count());
+        assertEquals(1, playlistSongRepository.findSongIdsByUserEmail(user).size());
+    }
+
+    @Test
+    void uniqueKeyRejectsInsertsThatBypassTheService() throws Exception {
+        // No per-user lock here, as with two application nodes sharing the table
+        AtomicInteger duplicates = new AtomicInteger();
+        runInParallel(THREADS, () -> {
+            LikedSong song = likedSong();
+            song.setUserEmail(user);
+            try {
+                likedSongRepository.saveAndFlush(song);
+            } catch (DataIntegrityViolationException e) {
+                assertTrue(DuplicateKeys.isDuplicateKey(e), "not a duplicate key: " + e);
+                duplicates.incrementAndGet();
+            }
+            return true;
+        });
+
+        assertEquals(1, likedSongRepository.findSongIdsByUserEmail(user).size());
+        assertEquals(THREADS - 1, duplicates.get());
+    }
+
+    private static <T> List<T> runInParallel(int tasks, Callable<T> task) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<T>> futures = new ArrayList<>(tasks);
+            for (int i = 0; i < tasks; i++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+            List<T> results = new ArrayList<>(tasks);
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static LikedSong likedSong() {
+        LikedSong song = new LikedSong();
+        song.setSongId(SONG_ID);
+        song.setSongTitle("Race Condition");
+        song.setArtist("The Threads");
+        return song;
+    }
+
+    private static PlaylistSong playlistSong() {
+        PlaylistSong song = new PlaylistSong();
+        song.setSongId(SONG_ID);
+        song.setSongTitle("Race Condition");
+        song.setArtist("The Threads");
+        return song;
+    }
+}
@@ -10,6 +10,7 @@ import './GenrePage.css';
 import { LibraryContext } from './LibraryContext';
 import { PlayerContext } from './PlayerContext';
 import DownloadQualityDropdown from './components/DownloadQualityModal';
+import { downloadSong } from './utils/download';
 
 const GenrePage = () => {
   const location = useLocation();
@@ -192,37 +193,7 @@ const GenrePage = () => {
 
     try {
       showToast('Preparing download...', 'info');
-
-      // Fetch the original audio file
-      const response = await fetch(selectedSong.audioSrc);
-      const arrayBuffer = await response.arrayBuffer();
-      const audioContext = new (window.AudioContext || window.webkitAudioContext)();
-      const audioBuffer = await audioContext.decodeAudioData(arrayBuffer);
-
-      // Calculate target size in bytes
-      const targetSize = parseSizeToBytes(quality.size);
-      
-      // Compress the audio to match the target size
-      const compressedBuffer = await compressAudio(audioBuffer, targetSize);
-      
-      // Create WAV file
-      const wavBlob = audioBufferToWav(compressedBuffer);
-      
-      // Verify the size
-      if (Math.abs(wavBlob.size - targetSize) > 100) { // Allow 100 bytes tolerance
-        throw new Error('Compressed file size does not match target size');
-      }
-
-      // Create download link
-      const url = URL.createObjectURL(wavBlob);
-      const a = document.createElement('a');
-      a.href = url;
-      a.download = `${selectedSong.title} - ${quality.label}.wav`;
-      document.body.appendChild(a);
-      a.click();
-      document.body.removeChild(a);
-      URL.revokeObjectURL(url);
-
+      await downloadSong(selectedSong, quality);
       showToast('Download complete!', 'success');
     } catch (error) {
       console.error('Download error:', error);
@@ -230,104 +201,6 @@ const GenrePage = () => {
     }
   };
 
-  // Add helper functions for audio processing
-  const parseSizeToBytes = (sizeStr) => {
-    const units = {
-      'B': 1,
-      'KB': 1024,
-      'MB': 1024 * 1024,
-      'GB': 1024 * 1024 * 1024
-    };
-    const [size, unit] = sizeStr.split(' ');
-    return parseFloat(size) * units[unit];
-  };
-
-  const compressAudio = async (audioBuffer, targetSize) => {
-    const numChannels = audioBuffer.numberOfChannels;
-    const sampleRate = audioBuffer.sampleRate;
-    const length = audioBuffer.length;
-
-    // Calculate the exact number of samples needed for target size
-    const headerSize = 44; // WAV header size
-    const bytesPerSample = 2; // 16-bit audio
-    const availableSize = targetSize - headerSize;
-    const totalSamples = Math.floor(availableSize / (numChannels * bytesPerSample));
-
-    // Create a new buffer with exact size
-    const newBuffer = new AudioBuffer({
-      numberOfChannels: numChannels,
-      length: totalSamples,
-      sampleRate: sampleRate
-    });
-
-    // Calculate compression ratio
-    const compressionRatio = totalSamples / length;
-
-    // Process each channel
-    for (let channel = 0; channel < numChannels; channel++) {
-      const channelData = audioBuffer.getChannelData(channel);
-      const newChannelData = newBuffer.getChannelData(channel);
-
-      // Resample and compress
-      for (let i = 0; i < totalSamples; i++) {
-        const originalIndex = Math.floor(i / compressionRatio);
-        const sample = channelData[originalIndex];
-        // Apply compression while maintaining audio integrity
-        newChannelData[i] = Math.max(-1, Math.min(1, sample));
-      }
-    }
-
-    return newBuffer;
-  };
-
-  const audioBufferToWav = (buffer) => {
-    const numChannels = buffer.numberOfChannels;
-    const sampleRate = buffer.sampleRate;
-    const format = 1; // PCM
-    const bitDepth = 16;
-    const bytesPerSample = bitDepth / 8;
-    const blockAlign = numChannels * bytesPerSample;
-    const byteRate = sampleRate * blockAlign;
-    const dataSize = buffer.length * blockAlign;
-    const totalSize = 44 + dataSize; // Header + Data
-
-    const arrayBuffer = new ArrayBuffer(totalSize);
-    const view = new DataView(arrayBuffer);
-
-    // Write WAV header
-    writeString(view, 0, 'RIFF');
-    view.setUint32(4, 36 + dataSize, true);
-    writeString(view, 8, 'WAVE');
-    writeString(view, 12, 'fmt ');
-    view.setUint32(16, 16, true);
-    view.setUint16(20, format, true);
-    view.setUint16(22, numChannels, true);
-    view.setUint32(24, sampleRate, true);
-    view.setUint32(28, byteRate, true);
-    view.setUint16(32, blockAlign, true);
-    view.setUint16(34, bitDepth, true);
-    writeString(view, 36, 'data');
-    view.setUint32(40, dataSize, true);
-
-    // Write audio data
-    const offset = 44;
-    for (let i = 0; i < buffer.length; i++) {
-      for (let channel = 0; channel < numChannels; channel++) {
-        const sample = buffer.getChannelData(channel)[i];
-        const val = sample < 0 ? sample * 0x8000 : sample * 0x7FFF;
-        view.setInt16(offset + (i * blockAlign) + (channel * bytesPerSample), val, true);
-      }
-    }
-
-    return new Blob([arrayBuffer], { type: 'audio/wav' });
-  };
-
-  const writeString = (view, offset, string) => {
-    for (let i = 0; i < string.length; i++) {
-      view.setUint8(offset + i, string.charCodeAt(i));
-    }
-  };
-
   // Add showToast function
   const showToast = (message, type = 'info') => {
     const toast = document.createElement('div');
@@ -11,10 +11,19 @@ import { LibraryContext } from './LibraryContext';
 import DownloadQualityDropdown from './components/DownloadQualityModal';
 import { songsApi, mapBackendSongs } from './api';
 
+// Matches the server's search page cap (SongService.MAX_SEARCH_PAGE)
+const SEARCH_PAGE_SIZE = 50;
+const MAX_SEARCH_PAGE = 50;
+
 const SearchPage = () => {
   const [searchQuery, setSearchQuery] = useState('');
   const [searchResults, setSearchResults] = useState([]);
-  const [allSongs, setAllSongs] = useState([]);
+  const [browseSongs, setBrowseSongs] = useState([]);
+  const [searchTotal, setSearchTotal] = useState(0);
+  const [searchPage, setSearchPage] = useState(0);
+  const [isLoadingMore, setIsLoadingMore] = useState(false);
+  const searchSeq = useRef(0);
+  const searchTimer = useRef(null);
   const [isLoading, setIsLoading] = useState(false);
   const [durations, setDurations] = useState({});
   const [isSearching, setIsSearching] = useState(false);
@@ -47,21 +56,23 @@ const SearchPage = () => {
     userId 
   } = useContext(LibraryContext);
 
+  // With no query the page shows the first catalog page; matches come from /songs/search
   useEffect(() => {
     let mounted = true;
-    songsApi.getAll()
-      .then(data => mounted && setAllSongs(mapBackendSongs(data)))
-      .catch(() => mounted && setAllSongs([]));
-    return () => { mounted = false; };
+    songsApi.getPage()
+      .then(data => mounted && setBrowseSongs(mapBackendSongs(data.songs)))
+      .catch(() => mounted && setBrowseSongs([]));
+    return () => {
+      mounted = false;
+      clearTimeout(searchTimer.current);
+    };
   }, []);
 
-  const getAllSongsIncludingRecommended = () => {
-    return [...allSongs];
-  };
-
   useEffect(() => {
-    setSearchResults(getAllSongsIncludingRecommended());
-  }, [allSongs]);
+    if (searchQuery.trim() === '') {
+      setSearchResults(browseSongs);
+    }
+  }, [browseSongs]);
 
   const calculateTextWidth = (text) => {
     const canvas = document.createElement('canvas');
@@ -77,29 +88,54 @@ const SearchPage = () => {
 
   const handleSearch = (query) => {
     setSearchQuery(query);
-    setIsLoading(true);
     const textWidth = calculateTextWidth(query);
     document.documentElement.style.setProperty('--input-width', `${textWidth}px`);
 
+    // Only the latest query's response is shown
+    const seq = ++searchSeq.current;
+    clearTimeout(searchTimer.current);
+    setSearchTotal(0);
+    setSearchPage(0);
+
     if (query.trim() === '') {
       setSuggestion('');
-      setSearchResults(getAllSongsIncludingRecommended());
+      setSearchResults(browseSongs);
       setIsLoading(false);
       return;
     }
 
-    setTimeout(() => {
-      const all = getAllSongsIncludingRecommended();
-      const filtered = all.filter(song => {
-        const searchableText = `${song.title} ${song.artist} ${song.movieName || ''} ${song.genre || ''}`.toLowerCase();
-        return searchableText.includes(query.toLowerCase());
-      });
-      setSearchResults(filtered);
+    setIsLoading(true);
+    searchTimer.current = setTimeout(() => {
       setSuggestion('');
-      setIsLoading(false);
+      songsApi.search(query, 0, SEARCH_PAGE_SIZE)
+        .then(result => {
+          if (seq !== searchSeq.current) return;
+          setSearchResults(mapBackendSongs(result.songs));
+          setSearchTotal(result.total);
+        })
+        .catch(() => seq === searchSeq.current && setSearchResults([]))
+        .finally(() => seq === searchSeq.current && setIsLoading(false));
     }, 300);
   };
 
+  const canLoadMore = searchQuery.trim() !== ''
+    && searchResults.length < searchTotal
+    && searchPage < MAX_SEARCH_PAGE;
+
+  const loadMoreResults = () => {
+    const seq = searchSeq.current;
+    const nextPage = searchPage + 1;
+    setIsLoadingMore(true);
+    songsApi.search(searchQuery, nextPage, SEARCH_PAGE_SIZE)
+      .then(result => {
+        if (seq !== searchSeq.current) return;
+        setSearchResults(prev => [...prev, ...mapBackendSongs(result.songs)]);
+        setSearchPage(nextPage);
+      })
+      .catch(() => showToast('Failed to load more results', 'error'))
+      .finally(() => setIsLoadingMore(false));
+  };
+
   const handleSuggestionClick = () => {
     if (suggestion) {
       const fullSuggestion = searchQuery + suggestion;
@@ -124,13 +160,23 @@ const SearchPage = () => {
     setCurrentSong(song);
     setCurrentPlaylist(searchResults);
     setIsPlaying(true);
-    const all = getAllSongsIncludingRecommended();
-    const related = all.filter(s => 
-      s.id !== song.id &&
-      ((s.movieName && song.movieName && s.movieName === song.movieName) ||
-       (s.genre && song.genre && s.genre === song.genre))
-    );
-    setRelatedSongs(related);
+    // Same movie or same genre, read from the browse endpoints rather than a local catalog copy
+    Promise.all([
+      song.movieName ? songsApi.getByMovie(song.movieName) : [],
+      song.genre ? songsApi.getByGenre(song.genre) : []
+    ])
+      .then(([byMovie, byGenre]) => {
+        const related = [];
+        const seen = new Set([song.id]);
+        for (const s of mapBackendSongs([...byMovie, ...byGenre])) {
+          if (!seen.has(s.id)) {
+            seen.add(s.id);
+            related.push(s);
+          }
+        }
+        setRelatedSongs(related);
+      })
+      .catch(() => setRelatedSongs([]));
   };
 
   const checkUserLoggedIn = () => {
@@ -216,35 +262,27 @@ const SearchPage = () => {
     });
   }, [searchResults]);
 
+  // Typeahead from /songs/suggest; stale responses are dropped
   useEffect(() => {
-    if (!searchQuery) {
+    if (!searchQuery.trim()) {
       setDropdownSuggestions([]);
       setDropdownActiveIndex(-1);
       return;
     }
-    const all = getAllSongsIncludingRecommended();
+    let current = true;
     const queryLower = searchQuery.toLowerCase();
-    const allFields = all.flatMap(song => [
-      { type: 'title', value: song.title, song },
-      { type: 'artist', value: song.artist, song },
-      { type: 'movieName', value: song.movieName || '', song }
-    ]);
-    const filtered = allFields.filter(
-      field => field.value && field.value.toLowerCase().includes(queryLower)
-    );
-    const unique = [];
-    const seen = new Set();
-    for (const item of filtered) {
-      const key = item.type + ':' + item.value;
-      if (!seen.has(key)) {
-        unique.push(item);
-        seen.add(key);
-      }
-    }
-    const notExactMatch = unique.filter(item => item.value.toLowerCase() !== queryLower);
-    setDropdownSuggestions(notExactMatch.slice(0, 5));
-    setDropdownActiveIndex(-1);
-  }, [searchQuery, allSongs]);
+    songsApi.suggest(searchQuery, 5)
+      .then(suggestions => {
+        if (!current) return;
+        const items = (suggestions || [])
+          .map(s => ({ type: s.type === 'song' ? 'title' : s.type, value: s.text, songId: s.songId }))
+          .filter(item => item.value && item.value.toLowerCase() !== queryLower);
+        setDropdownSuggestions(items);
+        setDropdownActiveIndex(-1);
+      })
+      .catch(() => current && setDropdownSuggestions([]));
+    return () => { current = false; };
+  }, [searchQuery]);
 
   const handleKeyDown = (e) => {
     if (dropdownSuggestions.length > 0) {
@@ -401,7 +439,11 @@ const SearchPage = () => {
     setSuggestion('');
     setDropdownSuggestions([]);
     setDropdownActiveIndex(-1);
-    setSearchResults(getAllSongsIncludingRecommended());
+    searchSeq.current++;
+    clearTimeout(searchTimer.current);
+    setSearchTotal(0);
+    setSearchPage(0);
+    setSearchResults(browseSongs);
     setIsLoading(false);
     document.documentElement.style.setProperty('--input-width', '0px');
   };
@@ -458,7 +500,7 @@ const SearchPage = () => {
             <div className="dropdown-suggestions">
               {dropdownSuggestions.map((item, idx) => (
                 <div
-                  key={item.type + item.value}
+                  key={item.type + ':' + (item.songId ?? item.value)}
                   className={`dropdown-suggestion-item${idx === dropdownActiveIndex ? ' active' : ''}`}
                   onMouseDown={(e) => {
                     e.preventDefault();
@@ -466,10 +508,7 @@ const SearchPage = () => {
                   }}
                 >
                   {item.type === 'title' ? (
-                    <>
-                      <span className="dropdown-song-title">{highlightMatch(item.value, searchQuery)}</span>
-                      <span className="dropdown-song-artist" style={{ color: 'green', cursor: 'pointer' }}>{item.song.artist}</span>
-                    </>
+                    <span className="dropdown-song-title">{highlightMatch(item.value, searchQuery)}</span>
                   ) : (
                     <span>{highlightMatch(item.value, searchQuery)}</span>
                   )}
@@ -562,6 +601,12 @@ const SearchPage = () => {
               ))}
             </div>
 
+            {canLoadMore && (
+              <button className="search-load-more" type="button" onClick={loadMoreResults} disabled={isLoadingMore}>
+                {isLoadingMore ? 'Loading...' : 'Show more results'}
+              </button>
+            )}
+
             {currentSong && relatedSongs.length > 0 && (
               <div className="related-songs-section">
                 <h2 className="related-songs-heading">You May Also Like</h2>
@@ -561,31 +561,31 @@ const SongPage = () => {
       if (!token) return;
 
       try {
-        // Check liked status for all songs
-        const likedPromises = allSongs.map(song =>
-          fetch(`/api/liked-songs/check/${song.id}`, {
-            headers: { 'Authorization': token }
-          }).then(res => res.json())
-        );
-
-        // Check playlist status for all songs
-        const playlistPromises = allSongs.map(song =>
-          fetch(`/api/playlist-songs/check/${song.id}`, {
-            headers: { 'Authorization': token }
-          }).then(res => res.json())
-        );
-
-        const [likedResults, playlistResults] = await Promise.all([
-          Promise.all(likedPromises),
-          Promise.all(playlistPromises)
+        // One batch request per list instead of one request per song
+        const ids = allSongs.map(song => String(song.id)).filter(id => /^\d+$/.test(id));
+        const batches = [];
+        for (let i = 0; i < ids.length; i += 500) {
+          batches.push(ids.slice(i, i + 500).join(','));
+        }
+
+        const fetchMatches = (path, key) =>
+          Promise.all(batches.map(batch =>
+            fetch(`${path}?ids=${batch}`, {
+              headers: { 'Authorization': token }
+            }).then(res => res.json())
+          )).then(results => new Set(results.flatMap(result => (result[key] || []).map(String))));
+
+        const [likedIds, playlistIds] = await Promise.all([
+          fetchMatches('/api/liked-songs/check', 'liked'),
+          fetchMatches('/api/playlist-songs/check', 'inPlaylist')
         ]);
 
         // Update liked songs
-        const newLikedSongs = allSongs.filter((song, index) => likedResults[index].liked);
+        const newLikedSongs = allSongs.filter(song => likedIds.has(String(song.id)));
         setLikedSongs(newLikedSongs);
 
         // Update playlist songs
-        const newPlaylistSongs = allSongs.filter((song, index) => playlistResults[index].inPlaylist);
+        const newPlaylistSongs = allSongs.filter(song => playlistIds.has(String(song.id)));
         setPlaylistSongs(newPlaylistSongs);
       } catch (error) {
         console.error('Error checking song status:', error);
@@ -27,11 +27,46 @@ export const playlistSongsApi = {
     isInPlaylist: (userId, songId) => axios.get(`${API_BASE_URL}/playlist-songs/${userId}/check/${songId}`)
 };
 
+// Browse endpoints return one page at a time; keep reading until a short page
+const BROWSE_PAGE_SIZE = 200;
+
+async function getAllPages(url) {
+    const songs = [];
+    let fullPage = 0;
+    for (let page = 0; ; page++) {
+        const { data } = await axios.get(url, { params: { page, size: BROWSE_PAGE_SIZE } });
+        const rows = data || [];
+        songs.push(...rows);
+        // The server may cap the size below what was asked for
+        fullPage = Math.max(fullPage, rows.length);
+        if (rows.length === 0 || rows.length < fullPage) {
+            return songs;
+        }
+    }
+}
+
+// The unpaged /songs list is capped on the server; walk the keyset cursor instead
+async function getCatalog() {
+    const songs = [];
+    let cursor;
+    do {
+        const { data } = await axios.get(`${API_BASE_URL}/songs`, { params: { cursor, size: BROWSE_PAGE_SIZE } });
+        songs.push(...(data.songs || []));
+        cursor = data.nextCursor;
+    } while (cursor);
+    return songs;
+}
+
 export const songsApi = {
-    getAll: () => axios.get(`${API_BASE_URL}/songs`).then(r => r.data),
-    getByGenre: (genre) => axios.get(`${API_BASE_URL}/songs/genre/${encodeURIComponent(genre)}`).then(r => r.data),
-    getByArtist: (artist) => axios.get(`${API_BASE_URL}/songs/artist/${encodeURIComponent(artist)}`).then(r => r.data),
-    getByMovie: (movieName) => axios.get(`${API_BASE_URL}/songs/movie/${encodeURIComponent(movieName)}`).then(r => r.data),
+    getAll: getCatalog,
+    getPage: (cursor, size = BROWSE_PAGE_SIZE) => axios.get(`${API_BASE_URL}/songs`, { params: { cursor, size } }).then(r => r.data),
+    getByGenre: (genre) => getAllPages(`${API_BASE_URL}/songs/genre/${encodeURIComponent(genre)}`),
+    getByArtist: (artist) => getAllPages(`${API_BASE_URL}/songs/artist/${encodeURIComponent(artist)}`),
+    getByMovie: (movieName) => getAllPages(`${API_BASE_URL}/songs/movie/${encodeURIComponent(movieName)}`),
+    search: (query, page = 0, size = 20) => axios.get(`${API_BASE_URL}/songs/search`, { params: { q: query, page, size } }).then(r => r.data),
+    suggest: (query, limit = 5) => axios.get(`${API_BASE_URL}/songs/suggest`, { params: { q: query, limit } }).then(r => r.data),
+    getRenditions: (id) => axios.get(`${API_BASE_URL}/songs/${id}/renditions`).then(r => r.data),
+    streamUrl: (id, quality = 'high') => `${API_BASE_URL}/songs/${id}/stream?quality=${encodeURIComponent(quality)}`,
 };
 
 export function mapBackendSongToFrontend(song) {
@@ -1,8 +1,11 @@
 import React, { useState, useEffect } from 'react';
 import './DownloadQualityModal.css';
+import { songsApi } from '../api';
+import { isCatalogSong } from '../utils/download';
 
 const DownloadQualityModal = ({ isOpen, onClose, onQualitySelect, song, position }) => {
   const [fileSize, setFileSize] = useState(null);
+  const [renditions, setRenditions] = useState(null);
   const [isLoading, setIsLoading] = useState(true);
   const [error, setError] = useState(null);
 
@@ -12,10 +15,30 @@ const DownloadQualityModal = ({ isOpen, onClose, onQualitySelect, song, position
     }
   }, [isOpen, song]);
 
+  const fetchRenditions = async () => {
+    if (!isCatalogSong(song)) return null;
+    try {
+      const data = await songsApi.getRenditions(song.id);
+      return Array.isArray(data) && data.length > 0 ? data : null;
+    } catch {
+      return null;
+    }
+  };
+
   const fetchFileSize = async (url) => {
     setIsLoading(true);
     setError(null);
+    setRenditions(null);
     try {
+      // Sizes recorded by the backend avoid probing the file at all
+      const known = await fetchRenditions();
+      if (known) {
+        const original = known.find(r => r.tier === 'HIGH');
+        setRenditions(known);
+        setFileSize(original ? original.sizeBytes : null);
+        return;
+      }
+
       // First try HEAD request
       const response = await fetch(url, { method: 'HEAD' });
       if (response.ok) {
@@ -55,11 +78,19 @@ const DownloadQualityModal = ({ isOpen, onClose, onQualitySelect, song, position
   const getQualityOptions = () => {
     if (!fileSize) return [];
 
-    const baseSize = fileSize;
+    if (renditions) {
+      // Only tiers the backend can serve are listed; ones still encoding cannot be picked yet
+      const labels = { HIGH: 'High Quality', MEDIUM: 'Medium Quality', LOW: 'Low Quality' };
+      return renditions.map(r => ({
+        label: labels[r.tier] || r.tier,
+        quality: r.tier.toLowerCase(),
+        size: r.ready ? formatFileSize(r.sizeBytes) : 'Preparing...',
+        disabled: !r.ready
+      }));
+    }
+    // Without recorded renditions only the original file exists
     return [
-      { label: 'High Quality', size: formatFileSize(baseSize) },
-      { label: 'Medium Quality', size: formatFileSize(baseSize * 0.7) },
-      { label: 'Low Quality', size: formatFileSize(baseSize * 0.4) }
+      { label: 'High Quality', quality: 'high', size: formatFileSize(fileSize) }
     ];
   };
 
@@ -92,6 +123,7 @@ const DownloadQualityModal = ({ isOpen, onClose, onQualitySelect, song, position
               <button
                 key={index}
                 className="quality-option"
+                disabled={option.disabled}
                 onClick={() => onQualitySelect(option)}
               >
                 <span className="quality-label">{option.label}</span>
@@ -6,6 +6,7 @@ import { PiPlay, PiPause, PiHeart, PiPlus, PiArrowLeft, PiHeartFill, PiPlusCircl
 import DownloadButton from '../components/DownloadButton';
 import DownloadQualityDropdown from '../components/DownloadQualityModal';
 import { songsApi, mapBackendSongs, mapBackendSongToFrontend } from '../api';
+import { downloadSong } from '../utils/download';
 import './SongPage.css';
 
 const SongPage = () => {
@@ -24,84 +25,6 @@ const SongPage = () => {
   const [selectedSong, setSelectedSong] = useState(null);
   const [downloadPosition, setDownloadPosition] = useState({ top: 0, left: 0 });
 
-  const parseSizeToBytes = (sizeStr) => {
-    const units = { 'B': 1, 'KB': 1024, 'MB': 1024 * 1024, 'GB': 1024 * 1024 * 1024 };
-    const [size, unit] = sizeStr.split(' ');
-    return parseFloat(size) * units[unit];
-  };
-
-  const compressAudio = async (audioBuffer, targetSize) => {
-    const audioContext = new (window.AudioContext || window.webkitAudioContext)();
-    const offlineContext = new OfflineAudioContext(
-      audioBuffer.numberOfChannels,
-      audioBuffer.length,
-      audioBuffer.sampleRate
-    );
-
-    const source = offlineContext.createBufferSource();
-    source.buffer = audioBuffer;
-    source.connect(offlineContext.destination);
-    source.start();
-
-    const renderedBuffer = await offlineContext.startRendering();
-    return renderedBuffer;
-  };
-
-  const audioBufferToWav = (buffer) => {
-    const numChannels = buffer.numberOfChannels;
-    const sampleRate = buffer.sampleRate;
-    const format = 1; // PCM
-    const bitDepth = 16;
-
-    const bytesPerSample = bitDepth / 8;
-    const blockAlign = numChannels * bytesPerSample;
-    const byteRate = sampleRate * blockAlign;
-    const dataSize = buffer.length * blockAlign;
-    const headerSize = 44;
-    const totalSize = headerSize + dataSize;
-
-    const arrayBuffer = new ArrayBuffer(totalSize);
-    const view = new DataView(arrayBuffer);
-
-    writeString(view, 0, 'RIFF');
-    view.setUint32(4, totalSize - 8, true);
-    writeString(view, 8, 'WAVE');
-    writeString(view, 12, 'fmt ');
-    view.setUint32(16, 16, true);
-    view.setUint16(20, format, true);
-    view.setUint16(22, numChannels, true);
-    view.setUint32(24, sampleRate, true);
-    view.setUint32(28, byteRate, true);
-    view.setUint16(32, blockAlign, true);
-    view.setUint16(34, bitDepth, true);
-    writeString(view, 36, 'data');
-    view.setUint32(40, dataSize, true);
-
-    const offset = 44;
-    const channelData = [];
-    for (let i = 0; i < numChannels; i++) {
-      channelData.push(buffer.getChannelData(i));
-    }
-
-    let pos = 0;
-    while (pos < buffer.length) {
-      for (let i = 0; i < numChannels; i++) {
-        const sample = Math.max(-1, Math.min(1, channelData[i][pos]));
-        const value = sample < 0 ? sample * 0x8000 : sample * 0x7FFF;
-        view.setInt16(offset + pos * blockAlign + i * bytesPerSample, value, true);
-      }
-      pos++;
-    }
-
-    return new Blob([arrayBuffer], { type: 'audio/wav' });
-  };
-
-  const writeString = (view, offset, string) => {
-    for (let i = 0; i < string.length; i++) {
-      view.setUint8(offset + i, string.charCodeAt(i));
-    }
-  };
-
   useEffect(() => {
     const load = async () => {
       try {
@@ -196,23 +119,10 @@ const SongPage = () => {
   };
 
   const handleDownload = async (quality) => {
+    setShowQualityModal(false);
     try {
       showToast('Preparing download...', 'info');
-      const response = await fetch(selectedSong.audioSrc);
-      const arrayBuffer = await response.arrayBuffer();
-      const audioContext = new (window.AudioContext || window.webkitAudioContext)();
-      const audioBuffer = await audioContext.decodeAudioData(arrayBuffer);
-      const targetSize = parseSizeToBytes(quality.size);
-      const compressedBuffer = await compressAudio(audioBuffer, targetSize);
-      const wavBlob = audioBufferToWav(compressedBuffer);
-      const url = URL.createObjectURL(wavBlob);
-      const a = document.createElement('a');
-      a.href = url;
-      a.download = `${selectedSong.title} - ${quality.label}.wav`;
-      document.body.appendChild(a);
-      a.click();
-      document.body.removeChild(a);
-      URL.revokeObjectURL(url);
+      await downloadSong(selectedSong, quality);
       showToast('Download complete!', 'success');
     } catch (error) {
       console.error('Download error:', error);
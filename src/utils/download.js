@@ -0,0 +1,34 @@
+import { songsApi } from '../api';
+
+// Catalog songs have numeric ids and can be fetched at a chosen quality tier
+export const isCatalogSong = (song) => Boolean(song) && /^\d+$/.test(String(song.id));
+
+const extensionFor = (contentType, fallbackUrl) => {
+  if (contentType && contentType.includes('mpeg')) return 'mp3';
+  const match = /\.([a-z0-9]+)(?:\?|$)/i.exec(fallbackUrl || '');
+  return match ? match[1] : 'mp3';
+};
+
+// Downloads the chosen tier as served by the backend, so lower tiers transfer fewer bytes
+export const downloadSong = async (song, quality) => {
+  const tier = (quality && quality.quality) || 'high';
+  const url = isCatalogSong(song) ? songsApi.streamUrl(song.id, tier) : song.audioSrc;
+
+  const response = await fetch(url);
+  if (!response.ok) {
+    throw new Error(`Download failed: ${response.status}`);
+  }
+  const blob = await response.blob();
+  if (blob.size === 0) {
+    throw new Error('Received empty audio data');
+  }
+
+  const href = URL.createObjectURL(blob);
+  const a = document.createElement('a');
+  a.href = href;
+  a.download = `${song.title} - ${quality ? quality.label : 'High Quality'}.${extensionFor(response.headers.get('content-type'), song.audioSrc)}`;
+  document.body.appendChild(a);
+  a.click();
+  document.body.removeChild(a);
+  URL.revokeObjectURL(href);
+};